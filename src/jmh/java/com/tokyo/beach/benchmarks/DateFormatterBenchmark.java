@@ -0,0 +1,27 @@
+package com.tokyo.beach.benchmarks;
+
+import com.tokyo.beach.restaurants.DateFormatter;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateFormatterBenchmark {
+    private ZonedDateTime date;
+
+    @Setup
+    public void setUp() {
+        date = SyntheticData.restaurants(1).get(0).getCreatedDate();
+    }
+
+    @Benchmark
+    public String formatDateForSerialization() {
+        return DateFormatter.formatDateForSerialization(date);
+    }
+}
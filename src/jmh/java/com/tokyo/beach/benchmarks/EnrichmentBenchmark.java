@@ -0,0 +1,108 @@
+package com.tokyo.beach.benchmarks;
+
+import com.tokyo.beach.restaurants.comment.CommentRepository;
+import com.tokyo.beach.restaurants.cuisine.Cuisine;
+import com.tokyo.beach.restaurants.cuisine.CuisineDataMapper;
+import com.tokyo.beach.restaurants.like.LikeDataMapper;
+import com.tokyo.beach.restaurants.photos.PhotoDataMapper;
+import com.tokyo.beach.restaurants.photos.PhotoUrl;
+import com.tokyo.beach.restaurants.pricerange.PriceRange;
+import com.tokyo.beach.restaurants.pricerange.PriceRangeDataMapper;
+import com.tokyo.beach.restaurants.referencedata.ReferenceDataRegistry;
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import com.tokyo.beach.restaurants.restaurant.RestaurantDataMapper;
+import com.tokyo.beach.restaurants.restaurant.RestaurantDetailDataMapper;
+import com.tokyo.beach.restaurants.restaurant.RestaurantRepository;
+import com.tokyo.beach.restaurants.restaurant.SerializedRestaurant;
+import com.tokyo.beach.restaurants.s3.S3DeletionDataMapper;
+import com.tokyo.beach.restaurants.s3.S3StorageRepository;
+import com.tokyo.beach.restaurants.user.User;
+import com.tokyo.beach.restaurants.user.UserDataMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Measures the in-memory join in RestaurantRepository: grouping photos,
+// building the lookup maps and constructing SerializedRestaurant. The data
+// mappers are replaced with stubs that return prebuilt lists.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnrichmentBenchmark {
+    private static final long CURRENT_USER_ID = 1L;
+    private static final JdbcTemplate NO_DATABASE = new JdbcTemplate();
+
+    @Param({"1000", "10000", "100000"})
+    public int restaurantCount;
+
+    private RestaurantRepository restaurantRepository;
+
+    @Setup
+    public void setUp() {
+        List<Restaurant> restaurants = SyntheticData.restaurants(restaurantCount);
+        List<PhotoUrl> photos = SyntheticData.photos(restaurants);
+        List<User> users = SyntheticData.users(restaurantCount);
+        List<Cuisine> cuisines = SyntheticData.cuisines();
+        List<PriceRange> priceRanges = SyntheticData.priceRanges();
+        Set<Long> likedRestaurantIds = new HashSet<>();
+        restaurants.stream()
+                .filter(restaurant -> restaurant.getId() % 3 == 0)
+                .forEach(restaurant -> likedRestaurantIds.add(restaurant.getId()));
+
+        CuisineDataMapper cuisineDataMapper = new CuisineDataMapper(NO_DATABASE) {
+            @Override
+            public List<Cuisine> getAll() {
+                return cuisines;
+            }
+        };
+        PriceRangeDataMapper priceRangeDataMapper = new PriceRangeDataMapper(NO_DATABASE) {
+            @Override
+            public List<PriceRange> getAll() {
+                return priceRanges;
+            }
+        };
+
+        restaurantRepository = new RestaurantRepository(
+                new RestaurantDataMapper(NO_DATABASE) {
+                    @Override
+                    public List<Restaurant> getRestaurantsPostedByUser(long userId) {
+                        return restaurants;
+                    }
+                },
+                new RestaurantDetailDataMapper(NO_DATABASE),
+                new PhotoDataMapper(NO_DATABASE) {
+                    @Override
+                    public List<PhotoUrl> findForRestaurants(List<Long> restaurantIds) {
+                        return photos;
+                    }
+                },
+                new UserDataMapper(NO_DATABASE) {
+                    @Override
+                    public List<User> findForUserIds(List<Long> ids) {
+                        return users;
+                    }
+                },
+                new LikeDataMapper(NO_DATABASE) {
+                    @Override
+                    public Set<Long> findLikedRestaurantIds(long userId, List<Long> restaurantIds) {
+                        return likedRestaurantIds;
+                    }
+                },
+                new ReferenceDataRegistry(cuisineDataMapper, priceRangeDataMapper),
+                new CommentRepository(NO_DATABASE),
+                new S3StorageRepository(new S3DeletionDataMapper(NO_DATABASE))
+        );
+    }
+
+    @Benchmark
+    public List<SerializedRestaurant> serializeRestaurants() {
+        return restaurantRepository.getRestaurantsPostedByUser(CURRENT_USER_ID);
+    }
+}
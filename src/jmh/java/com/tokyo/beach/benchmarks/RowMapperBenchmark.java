@@ -0,0 +1,86 @@
+package com.tokyo.beach.benchmarks;
+
+import com.tokyo.beach.restaurants.photos.PhotoUrl;
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.tokyo.beach.restaurants.photos.PhotoUrlRowMapper.photoUrlRowMapper;
+import static com.tokyo.beach.restaurants.restaurant.RestaurantRowMapper.restaurantRowMapper;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+    private ResultSet restaurantRow;
+    private ResultSet photoUrlRow;
+
+    @Setup
+    public void setUp() {
+        Timestamp now = Timestamp.from(Instant.parse("2016-05-01T00:00:00Z"));
+
+        Map<String, Object> restaurant = new HashMap<>();
+        restaurant.put("id", 1L);
+        restaurant.put("name", "Afuri");
+        restaurant.put("address", "1-2-3 Roppongi, Minato-ku");
+        restaurant.put("nearest_station", "Roppongi Station");
+        restaurant.put("place_id", "place-id");
+        restaurant.put("latitude", 35.66);
+        restaurant.put("longitude", 139.73);
+        restaurant.put("notes", "Yuzu shio ramen");
+        restaurant.put("created_at", now);
+        restaurant.put("updated_at", now);
+        restaurant.put("created_by_user_id", 1L);
+        restaurant.put("price_range_id", 1L);
+        restaurant.put("cuisine_id", 1L);
+        restaurant.put("like_count", 12L);
+        restaurant.put("version", 3L);
+        restaurant.put("revision", 7L);
+        restaurantRow = singleRow(restaurant);
+
+        Map<String, Object> photoUrl = new HashMap<>();
+        photoUrl.put("id", 1L);
+        photoUrl.put("url", "https://photos.example.com/1/0.jpg");
+        photoUrl.put("restaurant_id", 1L);
+        photoUrlRow = singleRow(photoUrl);
+    }
+
+    @Benchmark
+    public Restaurant mapRestaurantRow() throws Exception {
+        return restaurantRowMapper.mapRow(restaurantRow, 0);
+    }
+
+    @Benchmark
+    public PhotoUrl mapPhotoUrlRow() throws Exception {
+        return photoUrlRowMapper.mapRow(photoUrlRow, 0);
+    }
+
+    // Answers the typed getters the row mappers use from an in-memory row.
+    private static ResultSet singleRow(Map<String, Object> columns) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object value = columns.get((String) args[0]);
+                    switch (method.getName()) {
+                        case "getLong":
+                            return ((Number) value).longValue();
+                        case "getDouble":
+                            return ((Number) value).doubleValue();
+                        default:
+                            return value;
+                    }
+                }
+        );
+    }
+}
@@ -0,0 +1,33 @@
+package com.tokyo.beach.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tokyo.beach.restaurants.restaurant.SerializedRestaurant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int restaurantCount;
+
+    private ObjectMapper objectMapper;
+    private List<SerializedRestaurant> restaurants;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        restaurants = SyntheticData.serializedRestaurants(restaurantCount);
+    }
+
+    @Benchmark
+    public byte[] writeSerializedRestaurants() throws Exception {
+        return objectMapper.writeValueAsBytes(restaurants);
+    }
+}
@@ -0,0 +1,117 @@
+package com.tokyo.beach.benchmarks;
+
+import com.tokyo.beach.restaurants.cuisine.Cuisine;
+import com.tokyo.beach.restaurants.photos.PhotoUrl;
+import com.tokyo.beach.restaurants.pricerange.PriceRange;
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import com.tokyo.beach.restaurants.restaurant.SerializedRestaurant;
+import com.tokyo.beach.restaurants.user.User;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
+// Deterministic fixtures shaped like production data: a handful of cuisines
+// and price ranges, one poster per ten restaurants, two photos each.
+class SyntheticData {
+    static final int CUISINES = 20;
+    static final int PRICE_RANGES = 5;
+    static final int RESTAURANTS_PER_USER = 10;
+    static final int PHOTOS_PER_RESTAURANT = 2;
+
+    private static final ZonedDateTime BASE_TIME =
+            ZonedDateTime.ofInstant(Instant.parse("2016-05-01T00:00:00Z"), ZoneId.of("UTC"));
+
+    static List<Restaurant> restaurants(int count) {
+        List<Restaurant> restaurants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ZonedDateTime createdAt = BASE_TIME.minusMinutes(i);
+            restaurants.add(new Restaurant(
+                    i + 1,
+                    "Restaurant " + i,
+                    "1-2-3 Roppongi, Minato-ku",
+                    "Roppongi Station",
+                    "place-id-" + i,
+                    35.66 + i * 0.0001,
+                    139.73 + i * 0.0001,
+                    "Notes for restaurant " + i,
+                    createdAt,
+                    createdAt,
+                    userIdFor(i),
+                    i % PRICE_RANGES,
+                    i % CUISINES,
+                    i % 50,
+                    1L,
+                    1L
+            ));
+        }
+        return restaurants;
+    }
+
+    static List<PhotoUrl> photos(List<Restaurant> restaurants) {
+        List<PhotoUrl> photos = new ArrayList<>(restaurants.size() * PHOTOS_PER_RESTAURANT);
+        long id = 1;
+        for (Restaurant restaurant : restaurants) {
+            for (int i = 0; i < PHOTOS_PER_RESTAURANT; i++) {
+                photos.add(new PhotoUrl(id++, "https://photos.example.com/" + restaurant.getId() + "/" + i + ".jpg", restaurant.getId()));
+            }
+        }
+        return photos;
+    }
+
+    static List<User> users(int restaurantCount) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i <= (restaurantCount - 1) / RESTAURANTS_PER_USER; i++) {
+            users.add(new User(i + 1, "user" + i + "@example.com", "User " + i));
+        }
+        return users;
+    }
+
+    static List<Cuisine> cuisines() {
+        List<Cuisine> cuisines = new ArrayList<>(CUISINES);
+        for (int i = 0; i < CUISINES; i++) {
+            cuisines.add(new Cuisine(i, "Cuisine " + i));
+        }
+        return cuisines;
+    }
+
+    static List<PriceRange> priceRanges() {
+        List<PriceRange> priceRanges = new ArrayList<>(PRICE_RANGES);
+        for (int i = 0; i < PRICE_RANGES; i++) {
+            priceRanges.add(new PriceRange(i, "¥" + (i * 1000) + "~"));
+        }
+        return priceRanges;
+    }
+
+    static List<SerializedRestaurant> serializedRestaurants(int count) {
+        List<Restaurant> restaurants = restaurants(count);
+        List<PhotoUrl> photos = photos(restaurants);
+        List<User> users = users(count);
+        List<Cuisine> cuisines = cuisines();
+        List<PriceRange> priceRanges = priceRanges();
+
+        List<SerializedRestaurant> serialized = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Restaurant restaurant = restaurants.get(i);
+            serialized.add(new SerializedRestaurant(
+                    restaurant,
+                    photos.subList(i * PHOTOS_PER_RESTAURANT, (i + 1) * PHOTOS_PER_RESTAURANT),
+                    cuisines.get(restaurant.getCuisineId().intValue()),
+                    priceRanges.get((int) restaurant.getPriceRangeId()),
+                    users.get((int) restaurant.getCreatedByUserId() - 1),
+                    emptyList(),
+                    i % 3 == 0,
+                    restaurant.getLikeCount()
+            ));
+        }
+        return serialized;
+    }
+
+    private static long userIdFor(int restaurantIndex) {
+        return restaurantIndex / RESTAURANTS_PER_USER + 1;
+    }
+}
@@ -1,12 +1,51 @@
 package com.tokyo.beach.restaurants;
 
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class DateFormatter {
+    public static final ZoneId UTC = ZoneId.of("UTC");
+
+    static final int SERIALIZED_LENGTH = 24;
+
+    private static final DateTimeFormatter SERIALIZATION_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
 
     public static String formatDateForSerialization(ZonedDateTime dateToFormat) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-        return formatter.format(dateToFormat);
+        return SERIALIZATION_FORMATTER.format(dateToFormat);
+    }
+
+    // Same output as formatDateForSerialization, written into a caller-owned
+    // buffer of SERIALIZED_LENGTH chars. Returns false for years the fixed
+    // width cannot represent.
+    static boolean writeDateForSerialization(ZonedDateTime date, char[] buffer) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return false;
+        }
+
+        writeDigits(buffer, 0, year, 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, date.getMonthValue(), 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, date.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, date.getHour(), 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, date.getMinute(), 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, date.getSecond(), 2);
+        buffer[19] = '.';
+        writeDigits(buffer, 20, date.getNano() / 1_000_000, 3);
+        buffer[23] = 'Z';
+        return true;
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
     }
 }
@@ -0,0 +1,29 @@
+package com.tokyo.beach.restaurants;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+
+import static com.tokyo.beach.restaurants.DateFormatter.SERIALIZED_LENGTH;
+import static com.tokyo.beach.restaurants.DateFormatter.formatDateForSerialization;
+import static com.tokyo.beach.restaurants.DateFormatter.writeDateForSerialization;
+
+// Writes dates in the DateFormatter format straight into the generator
+// without building an intermediate String per value.
+public class SerializedDateSerializer extends JsonSerializer<ZonedDateTime> {
+    private static final ThreadLocal<char[]> BUFFER =
+            ThreadLocal.withInitial(() -> new char[SERIALIZED_LENGTH]);
+
+    @Override
+    public void serialize(ZonedDateTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        char[] buffer = BUFFER.get();
+        if (writeDateForSerialization(value, buffer)) {
+            gen.writeString(buffer, 0, SERIALIZED_LENGTH);
+        } else {
+            gen.writeString(formatDateForSerialization(value));
+        }
+    }
+}
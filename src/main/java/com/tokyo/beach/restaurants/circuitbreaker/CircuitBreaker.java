@@ -0,0 +1,152 @@
+package com.tokyo.beach.restaurants.circuitbreaker;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+// Opens when, over the last windowSize calls (and at least minimumCalls),
+// the percentage of failed or slow calls reaches its threshold. After
+// openDuration a single probe call is let through: if it succeeds quickly
+// the breaker closes, otherwise it opens again. A call's outcome only counts
+// if the breaker has not changed state since the call was admitted, so a
+// slow call from before the breaker opened cannot stand in for the probe.
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final Duration slowCallDuration;
+    private final float slowCallRateThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int nextIndex;
+    private int recordedCalls;
+
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private boolean probeInFlight;
+    private long transitions;
+
+    public CircuitBreaker(
+            int windowSize,
+            int minimumCalls,
+            float failureRateThreshold,
+            Duration slowCallDuration,
+            float slowCallRateThreshold,
+            Duration openDuration,
+            Clock clock
+    ) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallDuration = slowCallDuration;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    public synchronized Optional<Permission> tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                return Optional.empty();
+            }
+            transitionTo(State.HALF_OPEN);
+            probeInFlight = false;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return Optional.empty();
+            }
+            probeInFlight = true;
+        }
+
+        return Optional.of(new Permission(transitions));
+    }
+
+    public synchronized void onSuccess(Permission permission, Duration elapsed) {
+        record(permission, false, elapsed);
+    }
+
+    public synchronized void onError(Permission permission, Duration elapsed) {
+        record(permission, true, elapsed);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(Permission permission, boolean failed, Duration elapsed) {
+        if (permission.transitions != transitions) {
+            return;
+        }
+        boolean slow = elapsed.compareTo(slowCallDuration) >= 0;
+
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            if (failed || slow) {
+                open();
+            } else {
+                transitionTo(State.CLOSED);
+                resetWindow();
+            }
+            return;
+        }
+
+        failedCalls[nextIndex] = failed;
+        slowCalls[nextIndex] = slow;
+        nextIndex = (nextIndex + 1) % windowSize;
+        recordedCalls = Math.min(recordedCalls + 1, windowSize);
+
+        if (recordedCalls >= minimumCalls &&
+                (percentage(failedCalls) >= failureRateThreshold || percentage(slowCalls) >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    private void open() {
+        transitionTo(State.OPEN);
+        openedAt = clock.instant();
+        resetWindow();
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        transitions++;
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < windowSize; i++) {
+            failedCalls[i] = false;
+            slowCalls[i] = false;
+        }
+        nextIndex = 0;
+        recordedCalls = 0;
+    }
+
+    private float percentage(boolean[] calls) {
+        int count = 0;
+        for (int i = 0; i < recordedCalls; i++) {
+            if (calls[i]) {
+                count++;
+            }
+        }
+        return count * 100f / recordedCalls;
+    }
+
+    // Handed out by tryAcquirePermission and passed back with the outcome.
+    public static final class Permission {
+        private final long transitions;
+
+        private Permission(long transitions) {
+            this.transitions = transitions;
+        }
+    }
+}
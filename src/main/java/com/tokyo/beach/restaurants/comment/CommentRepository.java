@@ -5,10 +5,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
-import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
 
+import static com.tokyo.beach.restaurants.DateFormatter.UTC;
+
 @Repository
 public class CommentRepository {
     private JdbcTemplate jdbcTemplate;
@@ -28,7 +29,7 @@ public class CommentRepository {
                         new Comment(
                                 rs.getLong("comment_id"),
                                 rs.getString("content"),
-                                ZonedDateTime.ofInstant(rs.getTimestamp("created_at").toInstant(), ZoneId.of("UTC")),
+                                ZonedDateTime.ofInstant(rs.getTimestamp("created_at").toInstant(), UTC),
                                 rs.getLong("restaurant_id"),
                                 rs.getLong("created_by_user_id")
                         ),
@@ -2,15 +2,16 @@ package com.tokyo.beach.restaurants.comment;
 
 import org.springframework.jdbc.core.RowMapper;
 
-import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+import static com.tokyo.beach.restaurants.DateFormatter.UTC;
+
 public class CommentRowMapper {
     public static RowMapper<Comment> commentRowMapper = (rs, i) ->
             new Comment(
                     rs.getLong("id"),
                     rs.getString("content"),
-                    ZonedDateTime.ofInstant(rs.getTimestamp("created_at").toInstant(), ZoneId.of("UTC")),
+                    ZonedDateTime.ofInstant(rs.getTimestamp("created_at").toInstant(), UTC),
                     rs.getLong("restaurant_id"),
                     rs.getLong("created_by_user_id")
             );
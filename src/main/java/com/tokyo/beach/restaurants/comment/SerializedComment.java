@@ -1,8 +1,13 @@
 package com.tokyo.beach.restaurants.comment;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.tokyo.beach.restaurants.SerializedDateSerializer;
 import com.tokyo.beach.restaurants.user.User;
 
+import java.time.ZonedDateTime;
+
 import static com.tokyo.beach.restaurants.DateFormatter.formatDateForSerialization;
 
 public class SerializedComment {
@@ -23,11 +28,17 @@ public class SerializedComment {
         return comment.getComment();
     }
 
-    @JsonProperty("created_at")
+    @JsonIgnore
     public String getFormattedCreatedDate() {
         return formatDateForSerialization(comment.getCreatedDate());
     }
 
+    @JsonProperty("created_at")
+    @JsonSerialize(using = SerializedDateSerializer.class)
+    private ZonedDateTime getCreatedDateForJson() {
+        return comment.getCreatedDate();
+    }
+
     @JsonProperty("restaurant_id")
     public long getRestaurantId() {
         return comment.getRestaurantId();
@@ -1,5 +1,6 @@
 package com.tokyo.beach.restaurants.cuisine;
 
+import com.tokyo.beach.restaurants.referencedata.ReferenceDataRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
@@ -13,25 +14,29 @@ import static org.springframework.web.bind.annotation.RequestMethod.GET;
 @CrossOrigin
 public class CuisineController {
     private CuisineDataMapper cuisineDataMapper;
+    private ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public CuisineController(CuisineDataMapper cuisineDataMapper) {
+    public CuisineController(CuisineDataMapper cuisineDataMapper, ReferenceDataRegistry referenceDataRegistry) {
         this.cuisineDataMapper = cuisineDataMapper;
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     @RequestMapping(value="", method = GET)
     public List<Cuisine> getAll() {
-        return cuisineDataMapper.getAll();
+        return referenceDataRegistry.getCuisines();
     }
 
     @RequestMapping(value="{id}", method=GET)
     public Cuisine getCuisine(@PathVariable String id) {
-        return cuisineDataMapper.getCuisine(Long.parseLong(id)).get();
+        return referenceDataRegistry.getCuisine(Long.parseLong(id)).get();
     }
 
     @RequestMapping(value="", method= RequestMethod.POST)
     @ResponseStatus(HttpStatus.CREATED)
     public Cuisine create(@RequestBody NewCuisine newCuisine) {
-        return cuisineDataMapper.createCuisine(newCuisine);
+        Cuisine cuisine = cuisineDataMapper.createCuisine(newCuisine);
+        referenceDataRegistry.addCuisine(cuisine);
+        return cuisine;
     }
 }
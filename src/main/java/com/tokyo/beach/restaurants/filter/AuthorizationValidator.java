@@ -1,6 +1,7 @@
 package com.tokyo.beach.restaurants.filter;
 
 import com.tokyo.beach.restaurants.session.SessionDataMapper;
+import com.tokyo.beach.restaurants.session.SignedTokenService;
 
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
@@ -10,9 +11,11 @@ import java.util.Optional;
 
 public class AuthorizationValidator {
     private SessionDataMapper sessionDataMapper;
+    private SignedTokenService signedTokenService;
 
-    public AuthorizationValidator(SessionDataMapper sessionDataMapper) {
+    public AuthorizationValidator(SessionDataMapper sessionDataMapper, SignedTokenService signedTokenService) {
         this.sessionDataMapper = sessionDataMapper;
+        this.signedTokenService = signedTokenService;
     }
 
     public boolean authorizeRequest(ServletRequest request) throws IOException, ServletException {
@@ -33,7 +36,9 @@ public class AuthorizationValidator {
             token = originalToken.replace("Bearer", "").trim();
         }
 
-        Optional<Long> maybeUserId = this.sessionDataMapper.validateToken(token);
+        Optional<Long> maybeUserId = signedTokenService.isSignedToken(token)
+                ? this.signedTokenService.validateToken(token)
+                : this.sessionDataMapper.validateToken(token);
 
         if (maybeUserId.isPresent()) {
             Long userId = maybeUserId.get();
@@ -1,6 +1,7 @@
 package com.tokyo.beach.restaurants.filter;
 
 import com.tokyo.beach.restaurants.session.SessionDataMapper;
+import com.tokyo.beach.restaurants.session.SignedTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
@@ -15,16 +16,20 @@ public class RequestFilter implements Filter {
     @Autowired
     private SessionDataMapper sessionDataMapper;
 
+    @Autowired
+    private SignedTokenService signedTokenService;
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         ApplicationContext ctx = WebApplicationContextUtils
                 .getRequiredWebApplicationContext(filterConfig.getServletContext());
         this.sessionDataMapper = ctx.getBean(SessionDataMapper.class);
+        this.signedTokenService = ctx.getBean(SignedTokenService.class);
     }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
-        AuthorizationValidator authorizationValidator = new AuthorizationValidator(sessionDataMapper);
+        AuthorizationValidator authorizationValidator = new AuthorizationValidator(sessionDataMapper, signedTokenService);
 
         if (authorizationValidator.authorizeRequest(request)) {
             chain.doFilter(request, response);
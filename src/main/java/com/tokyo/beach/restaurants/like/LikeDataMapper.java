@@ -1,37 +1,40 @@
 package com.tokyo.beach.restaurants.like;
 
-import com.tokyo.beach.restaurants.restaurant.Restaurant;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsertOperations;
 import org.springframework.stereotype.Repository;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static com.tokyo.beach.restaurants.like.LikeRowMapper.likeRowMapper;
-import static java.util.stream.Collectors.toList;
+import static java.util.Collections.emptySet;
 
 @Repository
 public class LikeDataMapper {
     private JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedTemplate;
+    private final SimpleJdbcInsertOperations insertLike;
 
     @Autowired
     public LikeDataMapper(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.insertLike = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("likes")
+                .usingColumns("restaurant_id", "user_id")
+                .withoutTableColumnMetaDataAccess();
     }
 
     public Like create(long userId, long restaurantId) {
-        SimpleJdbcInsert insertLike = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("likes")
-                .usingColumns("restaurant_id", "user_id");
-
         Map<String, Object> params = new HashMap<>();
         params.put("restaurant_id", restaurantId);
         params.put("user_id", userId);
@@ -71,17 +74,19 @@ public class LikeDataMapper {
         return restaurantIds;
     }
 
-    public List<Like> findForRestaurants(List<Restaurant> restaurants) {
-        List<Long> restaurantIds = restaurants.stream().map(Restaurant::getId).collect(toList());
+    public Set<Long> findLikedRestaurantIds(long userId, List<Long> restaurantIds) {
+        if (restaurantIds.isEmpty()) {
+            return emptySet();
+        }
 
         MapSqlParameterSource parameters = new MapSqlParameterSource();
+        parameters.addValue("userId", userId);
         parameters.addValue("ids", restaurantIds);
-        NamedParameterJdbcTemplate namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
 
-        return namedTemplate.query(
-                "SELECT * FROM likes WHERE restaurant_id IN (:ids)",
+        return new HashSet<>(namedTemplate.queryForList(
+                "SELECT restaurant_id FROM likes WHERE user_id = :userId AND restaurant_id IN (:ids)",
                 parameters,
-                likeRowMapper
-        );
+                Long.class
+        ));
     }
 }
@@ -6,46 +6,69 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.tokyo.beach.restaurants.photos.PhotoUrlRowMapper.photoUrlRowMapper;
-import static java.util.stream.Collectors.toList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.nCopies;
 
 @Repository
 public class PhotoDataMapper {
     private JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedTemplate;
 
     @Autowired
     public PhotoDataMapper(@SuppressWarnings("SpringJavaAutowiringInspection") JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
     }
 
     public List<PhotoUrl> findForRestaurants(List<Long> restaurantIds) {
 
         MapSqlParameterSource parameters = new MapSqlParameterSource();
         parameters.addValue("ids", restaurantIds);
-        NamedParameterJdbcTemplate namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
 
         return namedTemplate.query(
-                "SELECT * FROM photo_url WHERE restaurant_id IN (:ids)",
+                "SELECT * FROM photo_url WHERE restaurant_id IN (:ids) ORDER BY id",
                 parameters,
                 photoUrlRowMapper
         );
     }
 
+    // One multi-row INSERT for all photos; ids follow the order of the list.
+    // URLs the restaurant already has are skipped and not returned.
     public List<PhotoUrl> createPhotosForRestaurant(long restaurantId, List<NewPhotoUrl> photos) {
-        return photos.stream().map((photo) -> jdbcTemplate.queryForObject(
-            "INSERT INTO photo_url (url, restaurant_id) VALUES (?, ?) RETURNING *",
-            photoUrlRowMapper,
-            photo.getUrl(),
-            restaurantId
-        )).collect(toList());
+        Set<String> urls = new LinkedHashSet<>();
+        photos.forEach(photo -> urls.add(photo.getUrl()));
+        if (urls.isEmpty()) {
+            return emptyList();
+        }
+
+        List<Object> parameters = new ArrayList<>();
+        for (String url : urls) {
+            parameters.add(url);
+            parameters.add(restaurantId);
+        }
+
+        return jdbcTemplate.query(
+                "WITH inserted AS (" +
+                        "INSERT INTO photo_url (url, restaurant_id) VALUES " +
+                        String.join(", ", nCopies(urls.size(), "(?, ?)")) +
+                        " ON CONFLICT (restaurant_id, url) DO NOTHING" +
+                        " RETURNING *" +
+                        ") SELECT * FROM inserted ORDER BY id",
+                photoUrlRowMapper,
+                parameters.toArray()
+        );
     }
 
     public List<PhotoUrl> findForRestaurant(long restaurantId) {
         return jdbcTemplate.query(
-            "SELECT * FROM photo_url WHERE restaurant_id = ?",
+            "SELECT * FROM photo_url WHERE restaurant_id = ? ORDER BY id",
             new Object[]{ restaurantId },
             photoUrlRowMapper
         );
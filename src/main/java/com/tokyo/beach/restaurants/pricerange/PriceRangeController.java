@@ -1,5 +1,6 @@
 package com.tokyo.beach.restaurants.pricerange;
 
+import com.tokyo.beach.restaurants.referencedata.ReferenceDataRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,16 +15,16 @@ import static org.springframework.web.bind.annotation.RequestMethod.GET;
 @RestController
 @CrossOrigin
 public class PriceRangeController {
-    private PriceRangeDataMapper priceRangeDataMapper;
+    private ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public PriceRangeController(PriceRangeDataMapper priceRangeDataMapper) {
-        this.priceRangeDataMapper = priceRangeDataMapper;
+    public PriceRangeController(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     @RequestMapping(value = "/priceranges", method = GET)
     @ResponseStatus(HttpStatus.OK)
     public List<PriceRange> getAll() {
-        return priceRangeDataMapper.getAll();
+        return referenceDataRegistry.getPriceRanges();
     }
 }
@@ -0,0 +1,129 @@
+package com.tokyo.beach.restaurants.referencedata;
+
+import com.tokyo.beach.restaurants.cuisine.Cuisine;
+import com.tokyo.beach.restaurants.cuisine.CuisineDataMapper;
+import com.tokyo.beach.restaurants.pricerange.PriceRange;
+import com.tokyo.beach.restaurants.pricerange.PriceRangeDataMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+// Cuisines and price ranges change rarely, so readers share an immutable
+// snapshot and writers swap in a new one. Loaded at startup, reloaded on a
+// timer and on any lookup miss to pick up rows created on other nodes.
+@Component
+public class ReferenceDataRegistry {
+    private final CuisineDataMapper cuisineDataMapper;
+    private final PriceRangeDataMapper priceRangeDataMapper;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public ReferenceDataRegistry(CuisineDataMapper cuisineDataMapper, PriceRangeDataMapper priceRangeDataMapper) {
+        this.cuisineDataMapper = cuisineDataMapper;
+        this.priceRangeDataMapper = priceRangeDataMapper;
+    }
+
+    public List<Cuisine> getCuisines() {
+        return snapshot().cuisines;
+    }
+
+    public Optional<Cuisine> getCuisine(long id) {
+        Cuisine cuisine = snapshot().cuisinesById.get(id);
+        if (cuisine == null) {
+            cuisine = refreshUnless(current -> current.cuisinesById.containsKey(id)).cuisinesById.get(id);
+        }
+        return Optional.ofNullable(cuisine);
+    }
+
+    public List<PriceRange> getPriceRanges() {
+        return snapshot().priceRanges;
+    }
+
+    public Optional<PriceRange> getPriceRange(long id) {
+        PriceRange priceRange = snapshot().priceRangesById.get(id);
+        if (priceRange == null) {
+            priceRange = refreshUnless(current -> current.priceRangesById.containsKey(id)).priceRangesById.get(id);
+        }
+        return Optional.ofNullable(priceRange);
+    }
+
+    // The snapshot may already hold the cuisine if it was loaded after the
+    // insert committed.
+    public synchronized void addCuisine(Cuisine cuisine) {
+        Snapshot current = snapshot();
+        if (current.cuisinesById.containsKey(cuisine.getId())) {
+            return;
+        }
+
+        List<Cuisine> cuisines = new ArrayList<>(current.cuisines);
+        cuisines.add(cuisine);
+        snapshot = new Snapshot(cuisines, current.priceRanges);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        snapshot();
+    }
+
+    @Scheduled(
+            initialDelayString = "${osusume.reference-data.refresh-millis:300000}",
+            fixedDelayString = "${osusume.reference-data.refresh-millis:300000}"
+    )
+    public synchronized void refresh() {
+        snapshot = new Snapshot(cuisineDataMapper.getAll(), priceRangeDataMapper.getAll());
+    }
+
+    // A miss usually means the row was created on another node since the
+    // last refresh, so reload before reporting it absent. Callers that missed
+    // together share one reload.
+    private synchronized Snapshot refreshUnless(Predicate<Snapshot> alreadyPresent) {
+        if (!alreadyPresent.test(snapshot())) {
+            refresh();
+        }
+        return snapshot;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static class Snapshot {
+        private final List<Cuisine> cuisines;
+        private final Map<Long, Cuisine> cuisinesById;
+        private final List<PriceRange> priceRanges;
+        private final Map<Long, PriceRange> priceRangesById;
+
+        Snapshot(List<Cuisine> cuisines, List<PriceRange> priceRanges) {
+            this.cuisines = Collections.unmodifiableList(new ArrayList<>(cuisines));
+            this.priceRanges = Collections.unmodifiableList(new ArrayList<>(priceRanges));
+
+            Map<Long, Cuisine> cuisinesById = new LinkedHashMap<>();
+            cuisines.forEach(cuisine -> cuisinesById.put(cuisine.getId(), cuisine));
+            this.cuisinesById = cuisinesById;
+
+            Map<Long, PriceRange> priceRangesById = new LinkedHashMap<>();
+            priceRanges.forEach(priceRange -> priceRangesById.put(priceRange.getId(), priceRange));
+            this.priceRangesById = priceRangesById;
+        }
+    }
+}
@@ -18,6 +18,9 @@ public class Restaurant {
     private long createdByUserId;
     private long priceRangeId;
     private long cuisineId;
+    private long likeCount;
+    private long version;
+    private long revision;
 
     public Restaurant(
             long id,
@@ -32,7 +35,10 @@ public class Restaurant {
             ZonedDateTime updatedDate,
             long createdByUserId,
             long priceRangeId,
-            long cuisineId) {
+            long cuisineId,
+            long likeCount,
+            long version,
+            long revision) {
         this.id = id;
         this.name = name;
         this.address = address;
@@ -46,6 +52,9 @@ public class Restaurant {
         this.priceRangeId = priceRangeId;
         this.cuisineId = cuisineId;
         this.updatedDate = updatedDate;
+        this.likeCount = likeCount;
+        this.version = version;
+        this.revision = revision;
     }
 
     public long getId() {
@@ -99,6 +108,18 @@ public class Restaurant {
         return cuisineId;
     }
 
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
     @JsonProperty("nearest_station")
     public String getNearestStation() {
         return nearestStation;
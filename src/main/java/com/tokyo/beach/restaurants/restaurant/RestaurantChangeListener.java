@@ -0,0 +1,9 @@
+package com.tokyo.beach.restaurants.restaurant;
+
+// Told about every restaurant RestaurantDataMapper creates, updates or
+// deletes, for in-memory indexes that must stay in step with the table.
+public interface RestaurantChangeListener {
+    void restaurantSaved(Restaurant restaurant);
+
+    void restaurantDeleted(long restaurantId);
+}
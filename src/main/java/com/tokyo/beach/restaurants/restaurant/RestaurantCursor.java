@@ -0,0 +1,77 @@
+package com.tokyo.beach.restaurants.restaurant;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+// Keyed on (created_at, id) so restaurants sharing a creation time are
+// neither skipped nor repeated between pages. Clients treat it as opaque.
+public class RestaurantCursor {
+    private final Instant createdAt;
+    private final long id;
+
+    public RestaurantCursor(Instant createdAt, long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static RestaurantCursor after(Restaurant restaurant) {
+        return new RestaurantCursor(restaurant.getCreatedDate().toInstant(), restaurant.getId());
+    }
+
+    public static Optional<RestaurantCursor> decode(String encoded) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":");
+            if (parts.length != 3) {
+                return Optional.empty();
+            }
+
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return Optional.of(new RestaurantCursor(createdAt, Long.parseLong(parts[2])));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        RestaurantCursor that = (RestaurantCursor) o;
+
+        if (id != that.id) return false;
+        return createdAt != null ? createdAt.equals(that.createdAt) : that.createdAt == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = createdAt != null ? createdAt.hashCode() : 0;
+        result = 31 * result + (int) (id ^ (id >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RestaurantCursor{" +
+                "createdAt=" + createdAt +
+                ", id=" + id +
+                '}';
+    }
+}
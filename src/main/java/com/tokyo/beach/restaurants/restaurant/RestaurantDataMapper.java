@@ -5,19 +5,37 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static com.tokyo.beach.restaurants.restaurant.RestaurantRowMapper.restaurantRowMapper;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 
 @Repository
 public class RestaurantDataMapper {
     private JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedTemplate;
+    private final List<RestaurantChangeListener> changeListeners;
+
+    public RestaurantDataMapper(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, emptyList());
+    }
 
     @Autowired
-    public RestaurantDataMapper(@SuppressWarnings("SpringJavaAutowiringInspection") JdbcTemplate jdbcTemplate) {
+    public RestaurantDataMapper(
+            @SuppressWarnings("SpringJavaAutowiringInspection") JdbcTemplate jdbcTemplate,
+            List<RestaurantChangeListener> changeListeners
+    ) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.changeListeners = changeListeners;
     }
 
     public List<Restaurant> getAll() {
@@ -26,6 +44,44 @@ public class RestaurantDataMapper {
                         restaurantRowMapper);
     }
 
+    public List<Restaurant> getPage(RestaurantFilter filter, Optional<RestaurantCursor> after, int limit) {
+        List<String> conditions = new ArrayList<>();
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+
+        filter.getCuisineId().ifPresent(cuisineId -> {
+            conditions.add("cuisine_id = :cuisineId");
+            parameters.addValue("cuisineId", cuisineId);
+        });
+        filter.getPriceRangeId().ifPresent(priceRangeId -> {
+            conditions.add("price_range_id = :priceRangeId");
+            parameters.addValue("priceRangeId", priceRangeId);
+        });
+        filter.getCreatedByUserId().ifPresent(createdByUserId -> {
+            conditions.add("created_by_user_id = :createdByUserId");
+            parameters.addValue("createdByUserId", createdByUserId);
+        });
+        filter.getName().ifPresent(name -> {
+            conditions.add("name ILIKE :name");
+            parameters.addValue("name", "%" + escapeLikePattern(name) + "%");
+        });
+        after.ifPresent(cursor -> {
+            conditions.add("(created_at, id) < (:afterCreatedAt, :afterId)");
+            parameters.addValue("afterCreatedAt", Timestamp.from(cursor.getCreatedAt()));
+            parameters.addValue("afterId", cursor.getId());
+        });
+        parameters.addValue("limit", limit);
+
+        String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
+        return namedTemplate.query(
+                "SELECT * FROM restaurant " +
+                        where +
+                        "ORDER BY created_at DESC, id DESC " +
+                        "LIMIT :limit",
+                parameters,
+                restaurantRowMapper
+        );
+    }
+
     public Optional<Restaurant> get(long id) {
         List<Restaurant> restaurants = jdbcTemplate
                 .query("SELECT * FROM restaurant WHERE id = ?",
@@ -40,14 +96,14 @@ public class RestaurantDataMapper {
     }
 
     public Restaurant createRestaurant(NewRestaurant newRestaurant, Long createdByUserId) {
-        return jdbcTemplate.queryForObject(
+        Restaurant restaurant = jdbcTemplate.queryForObject(
                 "INSERT INTO restaurant (" +
                         "name, address, nearest_station, place_id, latitude, longitude, " +
                         "notes, cuisine_id, price_range_id, created_by_user_id) " +
                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
                         "RETURNING " +
                         "id, name, address, nearest_station, place_id, latitude, longitude, " +
-                        "notes, cuisine_id, created_by_user_id, price_range_id, created_at, updated_at",
+                        "notes, cuisine_id, created_by_user_id, price_range_id, created_at, updated_at, like_count, version, revision",
                 restaurantRowMapper,
                 newRestaurant.getName(),
                 newRestaurant.getAddress(),
@@ -60,6 +116,8 @@ public class RestaurantDataMapper {
                 newRestaurant.getPriceRangeId(),
                 createdByUserId
         );
+        notifyListeners(listener -> listener.restaurantSaved(restaurant));
+        return restaurant;
     }
 
     public List<Restaurant> getRestaurantsPostedByUser(long userId) {
@@ -72,7 +130,6 @@ public class RestaurantDataMapper {
     public List<Restaurant> getRestaurantsByIds(List<Long> restaurantIds) {
         MapSqlParameterSource parameters =  new MapSqlParameterSource();
         parameters.addValue("ids", restaurantIds);
-        NamedParameterJdbcTemplate namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
 
         return namedTemplate.query(
                 "SELECT * FROM restaurant WHERE id IN (:ids)",
@@ -81,14 +138,31 @@ public class RestaurantDataMapper {
         );
     }
 
-    public Restaurant updateRestaurant(Long restaurantId, NewRestaurant restaurant) {
-        return jdbcTemplate.queryForObject(
-                "UPDATE restaurant SET " +
-                        "(name, address, nearest_station, place_id, latitude, longitude, cuisine_id, price_range_id, notes, updated_at) =" +
-                        "(?, ?, ?, ?, ?, ?, ?, ?, ?, now()) " +
-                        "WHERE id = ? " +
-                        "RETURNING id, name, address, nearest_station, place_id, latitude, longitude, notes, cuisine_id, created_by_user_id, price_range_id, created_at, updated_at",
+    // Ranked by ts_rank over restaurant_search, which weights name above
+    // nearest station above notes above comments.
+    public List<Restaurant> search(String query, int limit) {
+        return jdbcTemplate.query(
+                "SELECT restaurant.* " +
+                        "FROM restaurant_search " +
+                        "INNER JOIN restaurant ON restaurant.id = restaurant_search.restaurant_id, " +
+                        "plainto_tsquery('simple', ?) query " +
+                        "WHERE restaurant_search.document @@ query " +
+                        "ORDER BY ts_rank(restaurant_search.document, query) DESC, restaurant.id DESC " +
+                        "LIMIT ?",
                 restaurantRowMapper,
+                query,
+                limit
+        );
+    }
+
+    // With an expected version the row is only written if nobody else has
+    // updated it since; empty means no row matched the id and version.
+    public Optional<Restaurant> updateRestaurant(
+            Long restaurantId,
+            NewRestaurant restaurant,
+            Optional<Long> expectedVersion
+    ) {
+        List<Object> args = new ArrayList<>(asList(
                 restaurant.getName(),
                 restaurant.getAddress(),
                 restaurant.getNearestStation(),
@@ -99,10 +173,53 @@ public class RestaurantDataMapper {
                 restaurant.getPriceRangeId(),
                 restaurant.getNotes(),
                 restaurantId
+        ));
+        expectedVersion.ifPresent(args::add);
+
+        List<Restaurant> updatedRestaurants = jdbcTemplate.query(
+                "UPDATE restaurant SET " +
+                        "(name, address, nearest_station, place_id, latitude, longitude, cuisine_id, price_range_id, notes, updated_at, version) =" +
+                        "(?, ?, ?, ?, ?, ?, ?, ?, ?, now(), version + 1) " +
+                        "WHERE id = ? " +
+                        (expectedVersion.isPresent() ? "AND version = ? " : "") +
+                        "RETURNING id, name, address, nearest_station, place_id, latitude, longitude, notes, cuisine_id, created_by_user_id, price_range_id, created_at, updated_at, like_count, version, revision",
+                restaurantRowMapper,
+                args.toArray()
         );
+        if (updatedRestaurants.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Restaurant updatedRestaurant = updatedRestaurants.get(0);
+        notifyListeners(listener -> listener.restaurantSaved(updatedRestaurant));
+        return Optional.of(updatedRestaurant);
     }
 
     public void delete(Long restaurantId) {
         jdbcTemplate.update("DELETE FROM restaurant WHERE id = ?", restaurantId);
+        notifyListeners(listener -> listener.restaurantDeleted(restaurantId));
+    }
+
+    // Inside a transaction listeners only hear about the change once it has
+    // committed, so a rollback never reaches the in-memory indexes.
+    private void notifyListeners(Consumer<RestaurantChangeListener> notification) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changeListeners.forEach(notification);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                changeListeners.forEach(notification);
+            }
+        });
+    }
+
+    private static String escapeLikePattern(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 }
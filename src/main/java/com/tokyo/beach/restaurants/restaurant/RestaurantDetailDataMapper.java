@@ -0,0 +1,150 @@
+package com.tokyo.beach.restaurants.restaurant;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tokyo.beach.restaurants.comment.Comment;
+import com.tokyo.beach.restaurants.comment.SerializedComment;
+import com.tokyo.beach.restaurants.cuisine.Cuisine;
+import com.tokyo.beach.restaurants.photos.PhotoUrl;
+import com.tokyo.beach.restaurants.pricerange.PriceRange;
+import com.tokyo.beach.restaurants.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.tokyo.beach.restaurants.DateFormatter.UTC;
+import static com.tokyo.beach.restaurants.restaurant.RestaurantRowMapper.restaurantRowMapper;
+import static java.util.Collections.emptyList;
+
+@Repository
+public class RestaurantDetailDataMapper {
+    private static final String DETAIL_SQL =
+            "SELECT restaurant.*, " +
+                    "users.email AS user_email, " +
+                    "users.name AS user_name, " +
+                    "cuisine.name AS cuisine_name, " +
+                    "price_range.range AS price_range_range, " +
+                    "(SELECT json_agg(json_build_object('id', photo_url.id, 'url', photo_url.url) ORDER BY photo_url.id) " +
+                    "FROM photo_url WHERE photo_url.restaurant_id = restaurant.id) AS photo_urls, " +
+                    "(SELECT json_agg(json_build_object(" +
+                    "'id', comment.id, " +
+                    "'content', comment.content, " +
+                    "'created_at', comment.created_at, " +
+                    "'user_id', commenter.id, " +
+                    "'user_email', commenter.email, " +
+                    "'user_name', commenter.name" +
+                    ") ORDER BY comment.created_at DESC) " +
+                    "FROM comment INNER JOIN users commenter ON comment.created_by_user_id = commenter.id " +
+                    "WHERE comment.restaurant_id = restaurant.id) AS comments, " +
+                    "EXISTS (SELECT 1 FROM likes WHERE likes.restaurant_id = restaurant.id AND likes.user_id = ?) AS liked " +
+                    "FROM restaurant " +
+                    "INNER JOIN users ON restaurant.created_by_user_id = users.id " +
+                    "INNER JOIN cuisine ON restaurant.cuisine_id = cuisine.id " +
+                    "INNER JOIN price_range ON restaurant.price_range_id = price_range.id " +
+                    "WHERE restaurant.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public RestaurantDetailDataMapper(@SuppressWarnings("SpringJavaAutowiringInspection") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    public Optional<SerializedRestaurant> get(long restaurantId, long userId) {
+        List<SerializedRestaurant> restaurants = jdbcTemplate.query(
+                DETAIL_SQL,
+                this::mapRow,
+                userId,
+                restaurantId
+        );
+
+        if (restaurants.size() == 1) {
+            return Optional.of(restaurants.get(0));
+        }
+
+        return Optional.empty();
+    }
+
+    private SerializedRestaurant mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Restaurant restaurant = restaurantRowMapper.mapRow(rs, rowNum);
+
+        return new SerializedRestaurant(
+                restaurant,
+                mapPhotoUrls(rs.getString("photo_urls"), restaurant.getId()),
+                new Cuisine(rs.getLong("cuisine_id"), rs.getString("cuisine_name")),
+                new PriceRange(rs.getLong("price_range_id"), rs.getString("price_range_range")),
+                new User(rs.getLong("created_by_user_id"), rs.getString("user_email"), rs.getString("user_name")),
+                mapComments(rs.getString("comments"), restaurant.getId()),
+                rs.getBoolean("liked"),
+                restaurant.getLikeCount()
+        );
+    }
+
+    private List<PhotoUrl> mapPhotoUrls(String json, long restaurantId) {
+        List<PhotoUrl> photoUrls = new ArrayList<>();
+        for (JsonNode node : readArray(json)) {
+            photoUrls.add(new PhotoUrl(
+                    node.get("id").asLong(),
+                    node.get("url").asText(),
+                    restaurantId
+            ));
+        }
+        return photoUrls;
+    }
+
+    private List<SerializedComment> mapComments(String json, long restaurantId) {
+        List<SerializedComment> comments = new ArrayList<>();
+        for (JsonNode node : readArray(json)) {
+            long userId = node.get("user_id").asLong();
+            comments.add(new SerializedComment(
+                    new Comment(
+                            node.get("id").asLong(),
+                            node.get("content").asText(),
+                            parseTimestamp(node.get("created_at").asText()),
+                            restaurantId,
+                            userId
+                    ),
+                    new User(
+                            userId,
+                            node.get("user_email").asText(null),
+                            node.get("user_name").asText(null)
+                    )
+            ));
+        }
+        return comments;
+    }
+
+    private Iterable<JsonNode> readArray(String json) {
+        if (json == null) {
+            return emptyList();
+        }
+
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // json_build_object renders TIMESTAMP WITHOUT TIME ZONE as a local ISO
+    // string; read it the same way ResultSet.getTimestamp would.
+    private static ZonedDateTime parseTimestamp(String isoLocalDateTime) {
+        return ZonedDateTime.ofInstant(
+                Timestamp.valueOf(LocalDateTime.parse(isoLocalDateTime)).toInstant(),
+                UTC
+        );
+    }
+}
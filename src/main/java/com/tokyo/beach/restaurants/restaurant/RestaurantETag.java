@@ -0,0 +1,61 @@
+package com.tokyo.beach.restaurants.restaurant;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// A restaurant is tagged "<version>.<revision>.<user>": version moves on
+// edits, revision on likes, photos and comments, and the user is the one the
+// representation was built for, since "liked" is per user. A page is tagged
+// with a digest of version and revision for every row on it plus the user.
+public class RestaurantETag {
+    private static final Pattern RESTAURANT_TAG = Pattern.compile("\"(\\d{1,18})(?:\\.\\d{1,18}){0,2}\"");
+
+    public static String of(Restaurant restaurant, long userId) {
+        return "\"" + restaurant.getVersion() + "." + restaurant.getRevision() + "." + userId + "\"";
+    }
+
+    public static String of(SerializedRestaurant restaurant, long userId) {
+        return "\"" + restaurant.getVersion() + "." + restaurant.getRevision() + "." + userId + "\"";
+    }
+
+    public static String forPage(long userId, List<Restaurant> restaurants) {
+        StringBuilder rows = new StringBuilder().append(userId);
+        for (Restaurant restaurant : restaurants) {
+            rows.append(':')
+                    .append(restaurant.getId()).append('.')
+                    .append(restaurant.getVersion()).append('.')
+                    .append(restaurant.getRevision());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(rows.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // The version an If-Match tag was issued for. Accepts the shorter
+    // "<version>" and "<version>.<revision>" forms as well; weak or foreign
+    // tags are empty.
+    public static Optional<Long> versionOf(String tag) {
+        Matcher matcher = RESTAURANT_TAG.matcher(tag.trim());
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(Long.parseLong(matcher.group(1)));
+    }
+
+    // If-None-Match compares weakly, so a W/ prefix does not prevent a match.
+    public static boolean matchesAny(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package com.tokyo.beach.restaurants.restaurant;
+
+import java.util.Optional;
+
+// Restricts a restaurant listing. Every criterion is optional; the ones that
+// are set must all match.
+public class RestaurantFilter {
+    public static final RestaurantFilter NONE = new RestaurantFilter(null, null, null, null);
+
+    private final Long cuisineId;
+    private final Long priceRangeId;
+    private final Long createdByUserId;
+    private final String name;
+
+    public RestaurantFilter(Long cuisineId, Long priceRangeId, Long createdByUserId, String name) {
+        this.cuisineId = cuisineId;
+        this.priceRangeId = priceRangeId;
+        this.createdByUserId = createdByUserId;
+        this.name = name;
+    }
+
+    public Optional<Long> getCuisineId() {
+        return Optional.ofNullable(cuisineId);
+    }
+
+    public Optional<Long> getPriceRangeId() {
+        return Optional.ofNullable(priceRangeId);
+    }
+
+    public Optional<Long> getCreatedByUserId() {
+        return Optional.ofNullable(createdByUserId);
+    }
+
+    public Optional<String> getName() {
+        return Optional.ofNullable(name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        RestaurantFilter that = (RestaurantFilter) o;
+
+        if (cuisineId != null ? !cuisineId.equals(that.cuisineId) : that.cuisineId != null) return false;
+        if (priceRangeId != null ? !priceRangeId.equals(that.priceRangeId) : that.priceRangeId != null) return false;
+        if (createdByUserId != null ? !createdByUserId.equals(that.createdByUserId) : that.createdByUserId != null)
+            return false;
+        return name != null ? name.equals(that.name) : that.name == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cuisineId != null ? cuisineId.hashCode() : 0;
+        result = 31 * result + (priceRangeId != null ? priceRangeId.hashCode() : 0);
+        result = 31 * result + (createdByUserId != null ? createdByUserId.hashCode() : 0);
+        result = 31 * result + (name != null ? name.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RestaurantFilter{" +
+                "cuisineId=" + cuisineId +
+                ", priceRangeId=" + priceRangeId +
+                ", createdByUserId=" + createdByUserId +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
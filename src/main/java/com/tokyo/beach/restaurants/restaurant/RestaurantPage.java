@@ -0,0 +1,50 @@
+package com.tokyo.beach.restaurants.restaurant;
+
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Collections.emptyList;
+
+public class RestaurantPage {
+    private final List<SerializedRestaurant> restaurants;
+    private final Optional<RestaurantCursor> next;
+    private final String eTag;
+    private final boolean notModified;
+
+    public RestaurantPage(List<SerializedRestaurant> restaurants, Optional<RestaurantCursor> next, String eTag) {
+        this(restaurants, next, eTag, false);
+    }
+
+    private RestaurantPage(
+            List<SerializedRestaurant> restaurants,
+            Optional<RestaurantCursor> next,
+            String eTag,
+            boolean notModified
+    ) {
+        this.restaurants = restaurants;
+        this.next = next;
+        this.eTag = eTag;
+        this.notModified = notModified;
+    }
+
+    // The client already holds this page; nothing was loaded beyond the tag.
+    public static RestaurantPage notModified(String eTag) {
+        return new RestaurantPage(emptyList(), Optional.empty(), eTag, true);
+    }
+
+    public List<SerializedRestaurant> getRestaurants() {
+        return restaurants;
+    }
+
+    public Optional<RestaurantCursor> getNext() {
+        return next;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public boolean isNotModified() {
+        return notModified;
+    }
+}
@@ -2,219 +2,277 @@ package com.tokyo.beach.restaurants.restaurant;
 
 import com.tokyo.beach.restaurants.comment.CommentRepository;
 import com.tokyo.beach.restaurants.comment.SerializedComment;
-import com.tokyo.beach.restaurants.cuisine.Cuisine;
-import com.tokyo.beach.restaurants.cuisine.CuisineDataMapper;
-import com.tokyo.beach.restaurants.like.Like;
 import com.tokyo.beach.restaurants.like.LikeDataMapper;
 import com.tokyo.beach.restaurants.photos.NewPhotoUrl;
 import com.tokyo.beach.restaurants.photos.PhotoDataMapper;
 import com.tokyo.beach.restaurants.photos.PhotoUrl;
-import com.tokyo.beach.restaurants.pricerange.PriceRange;
-import com.tokyo.beach.restaurants.pricerange.PriceRangeDataMapper;
+import com.tokyo.beach.restaurants.referencedata.ReferenceDataRegistry;
 import com.tokyo.beach.restaurants.s3.S3StorageRepository;
 import com.tokyo.beach.restaurants.user.User;
 import com.tokyo.beach.restaurants.user.UserDataMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 @Repository
 public class RestaurantRepository {
     private final RestaurantDataMapper restaurantDataMapper;
+    private final RestaurantDetailDataMapper restaurantDetailDataMapper;
     private final PhotoDataMapper photoDataMapper;
     private final UserDataMapper userDataMapper;
-    private final PriceRangeDataMapper priceRangeDataMapper;
     private final LikeDataMapper likeDataMapper;
-    private final CuisineDataMapper cuisineDataMapper;
+    private final ReferenceDataRegistry referenceDataRegistry;
     private CommentRepository commentRepository;
     private S3StorageRepository s3StorageRepository;
 
     @Autowired
     public RestaurantRepository(RestaurantDataMapper restaurantDataMapper,
+                                RestaurantDetailDataMapper restaurantDetailDataMapper,
                                 PhotoDataMapper photoDataMapper,
                                 UserDataMapper userDataMapper,
-                                PriceRangeDataMapper priceRangeDataMapper,
                                 LikeDataMapper likeDataMapper,
-                                CuisineDataMapper cuisineDataMapper,
+                                ReferenceDataRegistry referenceDataRegistry,
                                 CommentRepository commentRepository,
                                 S3StorageRepository s3StorageRepository
                                  ) {
         this.restaurantDataMapper = restaurantDataMapper;
+        this.restaurantDetailDataMapper = restaurantDetailDataMapper;
         this.photoDataMapper = photoDataMapper;
         this.userDataMapper = userDataMapper;
-        this.priceRangeDataMapper = priceRangeDataMapper;
         this.likeDataMapper = likeDataMapper;
-        this.cuisineDataMapper = cuisineDataMapper;
+        this.referenceDataRegistry = referenceDataRegistry;
         this.commentRepository = commentRepository;
         this.s3StorageRepository = s3StorageRepository;
     }
 
-    public List<SerializedRestaurant> getAll(Long userId) {
-        List<Restaurant> restaurantList = restaurantDataMapper.getAll();
-        List<Long> ids = restaurantList.stream().map(Restaurant::getId).collect(toList());
+    // The page is tagged from its restaurant rows alone, so a client that
+    // already holds it is answered before photos, users and likes are loaded.
+    public RestaurantPage getPage(
+            Long userId,
+            RestaurantFilter filter,
+            Optional<RestaurantCursor> after,
+            int limit,
+            Optional<String> ifNoneMatch
+    ) {
+        List<Restaurant> restaurantList = restaurantDataMapper.getPage(filter, after, limit + 1);
+        String eTag = RestaurantETag.forPage(userId, restaurantList);
+        if (ifNoneMatch.isPresent() && RestaurantETag.matchesAny(ifNoneMatch.get(), eTag)) {
+            return RestaurantPage.notModified(eTag);
+        }
 
-        List<PhotoUrl> photos = photoDataMapper.findForRestaurants(ids);
-        Map<Long, List<PhotoUrl>> restaurantPhotos = photos
-            .stream()
-            .collect(groupingBy(PhotoUrl::getRestaurantId));
+        Optional<RestaurantCursor> next = Optional.empty();
+        if (restaurantList.size() > limit) {
+            restaurantList = restaurantList.subList(0, limit);
+            next = Optional.of(RestaurantCursor.after(restaurantList.get(limit - 1)));
+        }
 
-        List<User> userList = userDataMapper.findForUserIds(
-            restaurantList
-                .stream()
-                .map(Restaurant::getCreatedByUserId)
-                .collect(toList())
-        );
-        Map<Long, User> createdByUsers = userList
-                .stream()
-                .collect(Collectors.toMap(User::getId, UnaryOperator.identity()));
+        return new RestaurantPage(serialize(restaurantList, userId), next, eTag);
+    }
 
-        Map<Long, PriceRange> priceRangeMap = priceRangeDataMapper.getAll()
-                .stream()
-                .collect(Collectors.toMap(PriceRange::getId, UnaryOperator.identity()));
+    public List<SerializedRestaurant> getRestaurantsPostedByUser(Long userId) {
+        return serialize(restaurantDataMapper.getRestaurantsPostedByUser(userId), userId);
+    }
 
-        Map<Long, Cuisine> cuisineMap = cuisineDataMapper.getAll()
-                .stream()
-                .collect(Collectors.toMap(Cuisine::getId, UnaryOperator.identity()));
+    public List<SerializedRestaurant> getRestaurantsLikedByUser(Long userId) {
+        List<Long> likedRestaurantIds = likeDataMapper.getLikesByUser(userId);
+        if (likedRestaurantIds.isEmpty()) {
+            return emptyList();
+        }
 
-        Map<Long, List<Like>> restaurantLikes = likeDataMapper.findForRestaurants(restaurantList)
-                .stream()
-                .collect(groupingBy(Like::getRestaurantId));
+        return serialize(restaurantDataMapper.getRestaurantsByIds(likedRestaurantIds), userId);
+    }
 
-        return restaurantList
+    public List<SerializedRestaurant> search(Long userId, String query, int limit) {
+        return serialize(restaurantDataMapper.search(query, limit), userId);
+    }
+
+    // Keeps the order of the ids passed in; ids with no restaurant are dropped.
+    public List<SerializedRestaurant> getByIds(Long userId, List<Long> restaurantIds) {
+        if (restaurantIds.isEmpty()) {
+            return emptyList();
+        }
+
+        Map<Long, Restaurant> restaurantsById = restaurantDataMapper.getRestaurantsByIds(restaurantIds)
                 .stream()
-                .map((restaurant) -> new SerializedRestaurant(
-                    restaurant,
-                    restaurantPhotos.get(restaurant.getId()),
-                    cuisineMap.get(restaurant.getCuisineId()),
-                    priceRangeMap.get(restaurant.getPriceRangeId()),
-                    createdByUsers.get(restaurant.getCreatedByUserId()),
-                    emptyList(),
-                    restaurantLikes.get(restaurant.getId()) == null ? false : restaurantLikes.get(restaurant.getId()).contains(new Like(userId.longValue(), restaurant.getId())),
-                    restaurantLikes.get(restaurant.getId()) == null ? 0 : restaurantLikes.get(restaurant.getId()).size()
-                ))
+                .collect(Collectors.toMap(Restaurant::getId, UnaryOperator.identity()));
+        List<Restaurant> restaurantList = restaurantIds
+                .stream()
+                .map(restaurantsById::get)
+                .filter(Objects::nonNull)
                 .collect(toList());
+
+        return serialize(restaurantList, userId);
     }
 
     public Optional<SerializedRestaurant> get(Long restaurantId, Long userId) {
-        Optional<Restaurant> maybeRestaurant = restaurantDataMapper.get(restaurantId);
+        return restaurantDetailDataMapper.get(restaurantId, userId);
+    }
 
-        if (maybeRestaurant.isPresent()) {
-
-            Restaurant retrievedRestaurant = maybeRestaurant.get();
-            User createdByUser = userDataMapper.findForRestaurantId(retrievedRestaurant.getId());
-
-            List<PhotoUrl> photosForRestaurant = photoDataMapper.findForRestaurant(retrievedRestaurant.getId());
-            Cuisine cuisineForRestaurant = cuisineDataMapper.findForRestaurant(retrievedRestaurant.getId());
-            PriceRange priceRange = priceRangeDataMapper.findForRestaurant(retrievedRestaurant.getId());
-
-            List<SerializedComment> comments = commentRepository.findForRestaurant(retrievedRestaurant.getId());
-
-            List<Like> likes = likeDataMapper.findForRestaurant(retrievedRestaurant.getId());
-            boolean currentUserLikesRestaurant = likes
-                    .stream()
-                    .map(Like::getUserId)
-                    .anyMatch(Predicate.isEqual(userId));
-
-            return Optional.of(new SerializedRestaurant(
-                    retrievedRestaurant,
-                    photosForRestaurant,
-                    cuisineForRestaurant,
-                    priceRange,
-                    createdByUser,
-                    comments,
-                    currentUserLikesRestaurant,
-                    likes.size()
-            ));
-        } else {
-            return Optional.empty();
-        }
+    public Optional<String> getETag(Long restaurantId, Long userId) {
+        return restaurantDataMapper.get(restaurantId).map(restaurant -> RestaurantETag.of(restaurant, userId));
     }
 
+    // Writes run on one connection inside one transaction and are answered
+    // from what is already known: the insert results, the creator by primary
+    // key and cuisine and price range from reference data. Only the
+    // restaurant row is read again, and only when photos were added.
+    @Transactional
     public SerializedRestaurant create(NewRestaurant newRestaurant, Long userId) {
-        Restaurant restaurant = restaurantDataMapper.createRestaurant(
+        Restaurant insertedRestaurant = restaurantDataMapper.createRestaurant(
                 newRestaurant, userId.longValue()
         );
-        User createdByUser = userDataMapper.findForRestaurantId(restaurant.getId());
         List<PhotoUrl> photosForRestaurant = photoDataMapper.createPhotosForRestaurant(
-                restaurant.getId(),
+                insertedRestaurant.getId(),
                 newRestaurant.getPhotoUrls()
         );
-        Cuisine cuisine = cuisineDataMapper.findForRestaurant(restaurant.getId());
-        PriceRange priceRange = priceRangeDataMapper.findForRestaurant(restaurant.getId());
+        Restaurant restaurant = withCurrentRevision(insertedRestaurant, photosForRestaurant);
+        User createdByUser = userDataMapper.get(userId).orElse(null);
 
         return new SerializedRestaurant(
                 restaurant,
                 photosForRestaurant,
-                cuisine,
-                priceRange,
+                referenceDataRegistry.getCuisine(restaurant.getCuisineId()).orElse(null),
+                referenceDataRegistry.getPriceRange(restaurant.getPriceRangeId()).orElse(null),
                 createdByUser,
                 emptyList(),
                 false,
                 0L);
     }
 
-    public SerializedRestaurant update(Long restaurantId, NewRestaurant newRestaurant) {
-        Restaurant restaurant = restaurantDataMapper.updateRestaurant(
+    // Empty when the restaurant does not exist or, given an expected version,
+    // has been updated by someone else in the meantime.
+    @Transactional
+    public Optional<SerializedRestaurant> update(
+            Long restaurantId,
+            Long userId,
+            NewRestaurant newRestaurant,
+            Optional<Long> expectedVersion
+    ) {
+        Optional<Restaurant> maybeRestaurant = restaurantDataMapper.updateRestaurant(
                 restaurantId,
-                newRestaurant
+                newRestaurant,
+                expectedVersion
         );
-        User createdByUser = userDataMapper.findForRestaurantId(restaurant.getId());
+        if (!maybeRestaurant.isPresent()) {
+            return Optional.empty();
+        }
+
+        Restaurant updatedRestaurant = maybeRestaurant.get();
+        User createdByUser = userDataMapper.get(updatedRestaurant.getCreatedByUserId()).orElse(null);
 
-        List<PhotoUrl> existingPhotosForRestaurant = photoDataMapper.findForRestaurant(restaurant.getId());
+        List<PhotoUrl> existingPhotosForRestaurant = photoDataMapper.findForRestaurant(updatedRestaurant.getId());
+        Set<String> existingUrls = existingPhotosForRestaurant
+                .stream()
+                .map(PhotoUrl::getUrl)
+                .collect(toSet());
         List<NewPhotoUrl> onlyNewPhotos = newRestaurant.getPhotoUrls()
                 .stream()
-                .filter(newPhotoUrl -> !existingPhotosForRestaurant
-                        .stream()
-                        .map(photoUrl -> photoUrl.getUrl())
-                        .collect(toList())
-                        .contains(newPhotoUrl.getUrl())
-                ).collect(toList());
+                .filter(newPhotoUrl -> !existingUrls.contains(newPhotoUrl.getUrl()))
+                .collect(toList());
         List<PhotoUrl> newPhotosPersisted = photoDataMapper.createPhotosForRestaurant(
-                restaurant.getId(),
+                updatedRestaurant.getId(),
                 onlyNewPhotos
         );
-        Cuisine cuisine = cuisineDataMapper.findForRestaurant(restaurant.getId());
-        PriceRange priceRange = priceRangeDataMapper.findForRestaurant(restaurant.getId());
+        Restaurant restaurant = withCurrentRevision(updatedRestaurant, newPhotosPersisted);
         List<SerializedComment> comments = commentRepository.findForRestaurant(restaurant.getId());
 
-        List<Like> likes = likeDataMapper.findForRestaurant(restaurant.getId());
-        boolean currentUserLikesRestaurant = likes
-                .stream()
-                .map(Like::getUserId)
-                .anyMatch(Predicate.isEqual(createdByUser.getId()));
+        boolean currentUserLikesRestaurant = likeDataMapper
+                .findLikedRestaurantIds(userId, singletonList(restaurant.getId()))
+                .contains(restaurant.getId());
 
-        return new SerializedRestaurant(
+        return Optional.of(new SerializedRestaurant(
                 restaurant,
                 Stream.concat(
                         existingPhotosForRestaurant.stream(),
                         newPhotosPersisted.stream()
                 ).collect(Collectors.toList()),
-                cuisine,
-                priceRange,
+                referenceDataRegistry.getCuisine(restaurant.getCuisineId()).orElse(null),
+                referenceDataRegistry.getPriceRange(restaurant.getPriceRangeId()).orElse(null),
                 createdByUser,
                 comments,
                 currentUserLikesRestaurant,
-                likes.size()
-        );
+                restaurant.getLikeCount()
+        ));
     }
 
+    // The S3 deletions are queued in the same transaction as the row delete,
+    // so a failed enqueue cannot leave the files orphaned.
+    @Transactional
     public void delete(Long restaurantId, Long userId) {
         Optional<Restaurant> maybeRestaurant = restaurantDataMapper.get(restaurantId);
         if (maybeRestaurant.isPresent() && maybeRestaurant.get().getCreatedByUserId() == userId) {
             List<PhotoUrl> photoUrls = photoDataMapper.findForRestaurant(restaurantId);
             restaurantDataMapper.delete(restaurantId);
-            photoUrls.stream().forEach(photoUrl -> {
-                s3StorageRepository.deleteFile(photoUrl.getUrl());
-            });
+            s3StorageRepository.deleteFiles(photoUrls.stream().map(PhotoUrl::getUrl).collect(toList()));
+        }
+    }
+
+    @Transactional
+    public void deletePhotoUrl(long photoUrlId) {
+        Optional<PhotoUrl> maybePhotoUrl = photoDataMapper.get(photoUrlId);
+        if (maybePhotoUrl.isPresent()) {
+            photoDataMapper.delete(photoUrlId);
+            s3StorageRepository.deleteFile(maybePhotoUrl.get().getUrl());
+        }
+    }
+
+    // Inserting photos bumps the row's revision after it was returned, so it
+    // is read again for an ETag that matches the next GET.
+    private Restaurant withCurrentRevision(Restaurant restaurant, List<PhotoUrl> insertedPhotos) {
+        if (insertedPhotos.isEmpty()) {
+            return restaurant;
         }
+        return restaurantDataMapper.get(restaurant.getId()).orElse(restaurant);
+    }
+
+    // One query per relation regardless of how many restaurants are passed in.
+    private List<SerializedRestaurant> serialize(List<Restaurant> restaurantList, Long userId) {
+        if (restaurantList.isEmpty()) {
+            return emptyList();
+        }
+
+        List<Long> ids = restaurantList.stream().map(Restaurant::getId).collect(toList());
+
+        List<PhotoUrl> photos = photoDataMapper.findForRestaurants(ids);
+        Map<Long, List<PhotoUrl>> restaurantPhotos = photos
+            .stream()
+            .collect(groupingBy(PhotoUrl::getRestaurantId));
+
+        List<User> userList = userDataMapper.findForUserIds(
+            restaurantList
+                .stream()
+                .map(Restaurant::getCreatedByUserId)
+                .collect(toList())
+        );
+        Map<Long, User> createdByUsers = userList
+                .stream()
+                .collect(Collectors.toMap(User::getId, UnaryOperator.identity()));
+
+        Set<Long> likedRestaurantIds = likeDataMapper.findLikedRestaurantIds(userId, ids);
+
+        return restaurantList
+                .stream()
+                .map((restaurant) -> new SerializedRestaurant(
+                    restaurant,
+                    restaurantPhotos.get(restaurant.getId()),
+                    referenceDataRegistry.getCuisine(restaurant.getCuisineId()).orElse(null),
+                    referenceDataRegistry.getPriceRange(restaurant.getPriceRangeId()).orElse(null),
+                    createdByUsers.get(restaurant.getCreatedByUserId()),
+                    emptyList(),
+                    likedRestaurantIds.contains(restaurant.getId()),
+                    restaurant.getLikeCount()
+                ))
+                .collect(toList());
     }
 }
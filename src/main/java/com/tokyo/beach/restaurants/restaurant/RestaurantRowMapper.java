@@ -2,9 +2,10 @@ package com.tokyo.beach.restaurants.restaurant;
 
 import org.springframework.jdbc.core.RowMapper;
 
-import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+import static com.tokyo.beach.restaurants.DateFormatter.UTC;
+
 public class RestaurantRowMapper {
     public static RowMapper<Restaurant> restaurantRowMapper = (rs, i) ->
             new Restaurant(
@@ -16,10 +17,13 @@ public class RestaurantRowMapper {
                 rs.getDouble("latitude"),
                 rs.getDouble("longitude"),
                 rs.getString("notes"),
-                ZonedDateTime.ofInstant(rs.getTimestamp("created_at").toInstant(), ZoneId.of("UTC")),
-                ZonedDateTime.ofInstant(rs.getTimestamp("updated_at").toInstant(), ZoneId.of("UTC")),
+                ZonedDateTime.ofInstant(rs.getTimestamp("created_at").toInstant(), UTC),
+                ZonedDateTime.ofInstant(rs.getTimestamp("updated_at").toInstant(), UTC),
                 rs.getLong("created_by_user_id"),
                 rs.getLong("price_range_id"),
-                rs.getLong("cuisine_id")
+                rs.getLong("cuisine_id"),
+                rs.getLong("like_count"),
+                rs.getLong("version"),
+                rs.getLong("revision")
             );
 }
@@ -1,8 +1,7 @@
 package com.tokyo.beach.restaurants.restaurant;
 
-import com.tokyo.beach.restaurants.photos.PhotoDataMapper;
-import com.tokyo.beach.restaurants.photos.PhotoUrl;
-import com.tokyo.beach.restaurants.s3.S3StorageRepository;
+import com.tokyo.beach.restaurants.search.RestaurantGeoIndex;
+import com.tokyo.beach.restutils.PreconditionFailedException;
 import com.tokyo.beach.restutils.RestControllerException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -12,74 +11,200 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 import java.util.Optional;
 
+import static org.springframework.http.HttpHeaders.*;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.web.bind.annotation.RequestMethod.*;
 
-@CrossOrigin
+@CrossOrigin(exposedHeaders = {RestaurantsController.NEXT_CURSOR_HEADER, ETAG})
 @RestController
 @RequestMapping("/restaurants")
 public class RestaurantsController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_NEARBY_RADIUS_METERS = 1000;
+    private static final int MAX_NEARBY_RADIUS_METERS = 20000;
+
     private RestaurantRepository restaurantRepository;
-    private final PhotoDataMapper photoDataMapper;
-    private final S3StorageRepository s3StorageRepository;
+    private final RestaurantGeoIndex restaurantGeoIndex;
 
     @Autowired
     public RestaurantsController(
             RestaurantRepository restaurantRepository,
-            PhotoDataMapper photoDataMapper,
-            S3StorageRepository storageRepository
+            RestaurantGeoIndex restaurantGeoIndex
     ) {
         this.restaurantRepository = restaurantRepository;
-        this.photoDataMapper = photoDataMapper;
-        this.s3StorageRepository = storageRepository;
+        this.restaurantGeoIndex = restaurantGeoIndex;
     }
 
     @RequestMapping(value = "", method = GET)
-    public List<SerializedRestaurant> getAll() {
+    public List<SerializedRestaurant> getAll(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "next", required = false) String next,
+            @RequestParam(value = "cuisine_id", required = false) Long cuisineId,
+            @RequestParam(value = "price_range_id", required = false) Long priceRangeId,
+            @RequestParam(value = "created_by_user_id", required = false) Long createdByUserId,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletResponse response
+    ) {
+        Number userId = getCurrentUserId(RequestContextHolder.getRequestAttributes());
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new RestControllerException("Invalid limit.");
+        }
+
+        Optional<RestaurantCursor> after = Optional.empty();
+        if (next != null) {
+            after = RestaurantCursor.decode(next);
+            after.orElseThrow(() -> new RestControllerException("Invalid cursor."));
+        }
+
+        String nameFilter = name == null || name.trim().isEmpty() ? null : name.trim();
+        RestaurantFilter filter = new RestaurantFilter(cuisineId, priceRangeId, createdByUserId, nameFilter);
+
+        RestaurantPage page = restaurantRepository.getPage(
+                userId.longValue(), filter, after, pageSize, Optional.ofNullable(ifNoneMatch)
+        );
+        response.setHeader(VARY, AUTHORIZATION);
+        if (page.isNotModified()) {
+            return notModified(response, page.getETag());
+        }
+
+        response.setHeader(ETAG, page.getETag());
+        page.getNext().ifPresent(cursor -> response.setHeader(NEXT_CURSOR_HEADER, cursor.encode()));
+        return page.getRestaurants();
+    }
+
+    @RequestMapping(value = "search", method = GET)
+    public List<SerializedRestaurant> search(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        Number userId = getCurrentUserId(RequestContextHolder.getRequestAttributes());
+
+        if (query == null || query.trim().isEmpty()) {
+            throw new RestControllerException("Invalid query.");
+        }
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new RestControllerException("Invalid limit.");
+        }
+
+        return restaurantRepository.search(userId.longValue(), query.trim(), pageSize);
+    }
+
+    @RequestMapping(value = "nearby", method = GET)
+    public List<SerializedRestaurant> getNearby(
+            @RequestParam(value = "lat") double latitude,
+            @RequestParam(value = "lng") double longitude,
+            @RequestParam(value = "radius", required = false) Integer radius,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
         Number userId = getCurrentUserId(RequestContextHolder.getRequestAttributes());
-        return restaurantRepository.getAll(userId.longValue());
+
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new RestControllerException("Invalid location.");
+        }
+
+        int radiusMeters = radius == null ? DEFAULT_NEARBY_RADIUS_METERS : radius;
+        if (radiusMeters < 1 || radiusMeters > MAX_NEARBY_RADIUS_METERS) {
+            throw new RestControllerException("Invalid radius.");
+        }
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new RestControllerException("Invalid limit.");
+        }
+
+        List<Long> restaurantIds = restaurantGeoIndex.findNearby(latitude, longitude, radiusMeters, pageSize);
+        return restaurantRepository.getByIds(userId.longValue(), restaurantIds);
     }
 
     @RequestMapping(value = "{id}", method = GET)
-    public SerializedRestaurant getRestaurant(@PathVariable String id) {
+    public SerializedRestaurant getRestaurant(
+            @PathVariable String id,
+            @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletResponse response
+    ) {
         Number userId = getCurrentUserId(RequestContextHolder.getRequestAttributes());
+        long restaurantId = Long.parseLong(id);
+
+        response.setHeader(VARY, AUTHORIZATION);
+        if (ifNoneMatch != null) {
+            Optional<String> currentETag = restaurantRepository.getETag(restaurantId, userId.longValue());
+            if (currentETag.isPresent() && RestaurantETag.matchesAny(ifNoneMatch, currentETag.get())) {
+                return notModified(response, currentETag.get());
+            }
+        }
 
-        Optional<SerializedRestaurant> maybeRestaurant = restaurantRepository.get(Long.parseLong(id), userId.longValue());
+        Optional<SerializedRestaurant> maybeRestaurant = restaurantRepository.get(restaurantId, userId.longValue());
         maybeRestaurant.orElseThrow(() -> new RestControllerException("Invalid restaurant id."));
+        response.setHeader(ETAG, RestaurantETag.of(maybeRestaurant.get(), userId.longValue()));
         return maybeRestaurant.get();
     }
 
     @RequestMapping(value = "", method = POST)
     @ResponseStatus(CREATED)
-    public SerializedRestaurant create(@RequestBody NewRestaurantWrapper restaurantWrapper) {
+    public SerializedRestaurant create(
+            @RequestBody NewRestaurantWrapper restaurantWrapper,
+            HttpServletResponse response
+    ) {
         Number userId = getCurrentUserId(RequestContextHolder.getRequestAttributes());
 
-        return restaurantRepository.create(restaurantWrapper.getRestaurant(), userId.longValue());
+        SerializedRestaurant restaurant = restaurantRepository.create(restaurantWrapper.getRestaurant(), userId.longValue());
+        response.setHeader(ETAG, RestaurantETag.of(restaurant, userId.longValue()));
+        return restaurant;
     }
 
+    // If-Match carries the ETag from an earlier read; the update only goes
+    // through if the restaurant is still at that version, whatever has
+    // happened to its likes, photos or comments. "*" matches any existing
+    // restaurant.
     @RequestMapping(value = "{id}", method = PATCH)
     @ResponseStatus(OK)
     public SerializedRestaurant updateRestaurant(
             @PathVariable String id,
-            @RequestBody NewRestaurantWrapper restaurantWrapper
+            @RequestBody NewRestaurantWrapper restaurantWrapper,
+            @RequestHeader(value = IF_MATCH, required = false) String ifMatch,
+            HttpServletResponse response
     ) {
-        return restaurantRepository.update(new Long(id), restaurantWrapper.getRestaurant());
+        Number userId = getCurrentUserId(RequestContextHolder.getRequestAttributes());
+
+        Optional<Long> expectedVersion = Optional.empty();
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            expectedVersion = RestaurantETag.versionOf(ifMatch);
+            expectedVersion.orElseThrow(() -> new PreconditionFailedException("Restaurant has been modified."));
+        }
+
+        Optional<SerializedRestaurant> maybeRestaurant = restaurantRepository.update(
+                new Long(id),
+                userId.longValue(),
+                restaurantWrapper.getRestaurant(),
+                expectedVersion
+        );
+        if (!maybeRestaurant.isPresent()) {
+            if (ifMatch != null) {
+                throw new PreconditionFailedException("Restaurant has been modified.");
+            }
+            throw new RestControllerException("Invalid restaurant id.");
+        }
+
+        response.setHeader(ETAG, RestaurantETag.of(maybeRestaurant.get(), userId.longValue()));
+        return maybeRestaurant.get();
     }
 
     @RequestMapping(value = "{restaurantId}/photoUrls/{photoUrlId}", method = DELETE)
     @ResponseStatus(HttpStatus.OK)
     public void deletePhotoUrl(@PathVariable String restaurantId, @PathVariable String photoUrlId) {
-        Optional<PhotoUrl> maybePhotoUrl = photoDataMapper.get(Long.parseLong(photoUrlId));
-
-        if (maybePhotoUrl.isPresent()) {
-            photoDataMapper.delete(Long.parseLong(photoUrlId));
-            s3StorageRepository.deleteFile(maybePhotoUrl.get().getUrl());
-        }
-
+        restaurantRepository.deletePhotoUrl(Long.parseLong(photoUrlId));
     }
 
     @RequestMapping(value = "{restaurantId}", method = DELETE)
@@ -89,6 +214,12 @@ public class RestaurantsController {
         restaurantRepository.delete(Long.parseLong(restaurantId), userId.longValue());
     }
 
+    private static <T> T notModified(HttpServletResponse response, String eTag) {
+        response.setHeader(ETAG, eTag);
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return null;
+    }
+
     private Number getCurrentUserId(RequestAttributes requestAttributes) {
         HttpServletRequest request = ((ServletRequestAttributes) requestAttributes).getRequest();
         return (Number) request.getAttribute("userId");
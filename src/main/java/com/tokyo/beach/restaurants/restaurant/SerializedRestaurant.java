@@ -1,12 +1,16 @@
 package com.tokyo.beach.restaurants.restaurant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.tokyo.beach.restaurants.SerializedDateSerializer;
 import com.tokyo.beach.restaurants.comment.SerializedComment;
 import com.tokyo.beach.restaurants.cuisine.Cuisine;
 import com.tokyo.beach.restaurants.photos.PhotoUrl;
 import com.tokyo.beach.restaurants.pricerange.PriceRange;
 import com.tokyo.beach.restaurants.user.User;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 
 import static com.tokyo.beach.restaurants.DateFormatter.formatDateForSerialization;
@@ -90,16 +94,28 @@ public class SerializedRestaurant {
         return createdByUser.getName();
     }
 
-    @JsonProperty("created_at")
+    @JsonIgnore
     public String getCreatedDate() {
         return formatDateForSerialization(restaurant.getCreatedDate());
     }
 
-    @JsonProperty("updated_at")
+    @JsonIgnore
     public String getUpdatedDate() {
         return formatDateForSerialization(restaurant.getUpdatedDate());
     }
 
+    @JsonProperty("created_at")
+    @JsonSerialize(using = SerializedDateSerializer.class)
+    private ZonedDateTime getCreatedDateForJson() {
+        return restaurant.getCreatedDate();
+    }
+
+    @JsonProperty("updated_at")
+    @JsonSerialize(using = SerializedDateSerializer.class)
+    private ZonedDateTime getUpdatedDateForJson() {
+        return restaurant.getUpdatedDate();
+    }
+
     @JsonProperty("photo_urls")
     public List<PhotoUrl> getPhotoUrlList() {
         if (photoUrls == null) {
@@ -131,4 +147,13 @@ public class SerializedRestaurant {
     public long getNumberOfLikes() {
         return numberOfLikes;
     }
+
+    public long getVersion() {
+        return restaurant.getVersion();
+    }
+
+    @JsonIgnore
+    public long getRevision() {
+        return restaurant.getRevision();
+    }
 }
@@ -1,6 +1,7 @@
 package com.tokyo.beach.restaurants.restaurant_suggestions;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
 
 public class RestaurantSuggestion {
     private String placeId;
@@ -17,6 +18,15 @@ public class RestaurantSuggestion {
         this.geometry = geometry;
     }
 
+    public static RestaurantSuggestion from(Restaurant restaurant) {
+        return new RestaurantSuggestion(
+                restaurant.getPlaceId(),
+                restaurant.getName(),
+                restaurant.getAddress(),
+                new Geometry(new Coordinate(restaurant.getLatitude(), restaurant.getLongitude()))
+        );
+    }
+
     public String getName() {
         return name;
     }
@@ -2,36 +2,207 @@ package com.tokyo.beach.restaurants.restaurant_suggestions;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tokyo.beach.restaurants.cache.ExpiringCache;
+import com.tokyo.beach.restaurants.circuitbreaker.CircuitBreaker;
+import com.tokyo.beach.restaurants.search.SearchText;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
 
-public class RestaurantSuggestionRepository {
-    private OkHttpClient okHttpClient;
+import static java.util.stream.Collectors.toList;
 
-    public RestaurantSuggestionRepository() {
-        this.okHttpClient = new OkHttpClient();
+// Results are cached per normalized query, and callers asking for a query
+// that is already being fetched wait for that fetch instead of starting
+// their own. At most maxConcurrentCalls upstream calls run at once, and
+// the circuit breaker stops calling Places while it is failing or slow.
+// Whenever Places can't answer there are no remote suggestions, and nothing
+// is cached; the controller still has the restaurants we already know.
+@Repository
+public class RestaurantSuggestionRepository implements PublicMetrics {
+    private static final ObjectReader RESULT_READER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .readerFor(GooglePlacesResult.class);
+
+    private final OkHttpClient okHttpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore upstreamPermits;
+    private final ExpiringCache<String, List<RestaurantSuggestion>> suggestionsByUrl;
+    private final ConcurrentMap<String, CompletableFuture<List<RestaurantSuggestion>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder upstreamCount = new LongAdder();
+    private final LongAdder upstreamLatencyMillis = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder shortCircuitedCount = new LongAdder();
+    private final LongAdder fallbackCount = new LongAdder();
+
+    @Autowired
+    public RestaurantSuggestionRepository(
+            OkHttpClient placesHttpClient,
+            CircuitBreaker placesCircuitBreaker,
+            @Value("${osusume.suggestions.cache.ttl-seconds:600}") long ttlSeconds,
+            @Value("${osusume.suggestions.cache.max-size:1000}") int maxSize,
+            @Value("${osusume.suggestions.max-concurrent-calls:16}") int maxConcurrentCalls
+    ) {
+        this.okHttpClient = placesHttpClient;
+        this.circuitBreaker = placesCircuitBreaker;
+        this.upstreamPermits = new Semaphore(maxConcurrentCalls);
+        this.suggestionsByUrl = new ExpiringCache<>(ttlSeconds * 1000, maxSize);
     }
 
     public List<RestaurantSuggestion> getAll(HttpUrl url) {
+        HttpUrl normalizedUrl = normalize(url);
+        String key = normalizedUrl.toString();
+
+        Optional<List<RestaurantSuggestion>> cached = suggestionsByUrl.get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        CompletableFuture<List<RestaurantSuggestion>> future = new CompletableFuture<>();
+        CompletableFuture<List<RestaurantSuggestion>> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCount.increment();
+            return existing.join();
+        }
+
+        try {
+            List<RestaurantSuggestion> suggestions = fetch(normalizedUrl);
+            if (suggestions != null) {
+                suggestionsByUrl.put(key, suggestions);
+            } else {
+                suggestions = unavailable();
+            }
+            future.complete(suggestions);
+            return suggestions;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public long getUpstreamCount() {
+        return upstreamCount.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        long hits = suggestionsByUrl.getHitCount();
+        long lookups = hits + suggestionsByUrl.getMissCount();
+        long upstream = upstreamCount.sum();
+        return Arrays.asList(
+                new Metric<>("restaurant_suggestions.cache.hits", hits),
+                new Metric<>("restaurant_suggestions.cache.misses", suggestionsByUrl.getMissCount()),
+                new Metric<>("restaurant_suggestions.cache.hit-ratio", lookups == 0 ? 0.0 : (double) hits / lookups),
+                new Metric<>("restaurant_suggestions.cache.size", suggestionsByUrl.size()),
+                new Metric<>("restaurant_suggestions.coalesced", coalescedCount.sum()),
+                new Metric<>("restaurant_suggestions.upstream.requests", upstream),
+                new Metric<>("restaurant_suggestions.upstream.rejected", rejectedCount.sum()),
+                new Metric<>("restaurant_suggestions.upstream.short-circuited", shortCircuitedCount.sum()),
+                new Metric<>("restaurant_suggestions.fallbacks", fallbackCount.sum()),
+                new Metric<>("restaurant_suggestions.circuit.state", circuitBreaker.getState().ordinal()),
+                new Metric<>("restaurant_suggestions.upstream.latency.mean",
+                        upstream == 0 ? 0 : upstreamLatencyMillis.sum() / upstream)
+        );
+    }
+
+    private List<RestaurantSuggestion> fetch(HttpUrl url) {
+        if (!upstreamPermits.tryAcquire()) {
+            rejectedCount.increment();
+            return null;
+        }
+
+        try {
+            Optional<CircuitBreaker.Permission> permission = circuitBreaker.tryAcquirePermission();
+            if (!permission.isPresent()) {
+                shortCircuitedCount.increment();
+                return null;
+            }
+
+            long start = System.nanoTime();
+            List<RestaurantSuggestion> suggestions = null;
+            try {
+                suggestions = call(url);
+            } finally {
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                if (suggestions != null) {
+                    circuitBreaker.onSuccess(permission.get(), elapsed);
+                } else {
+                    circuitBreaker.onError(permission.get(), elapsed);
+                }
+                upstreamCount.increment();
+                upstreamLatencyMillis.add(elapsed.toMillis());
+            }
+            return suggestions;
+        } finally {
+            upstreamPermits.release();
+        }
+    }
+
+    private List<RestaurantSuggestion> call(HttpUrl url) {
         Request request = new Request.Builder()
                 .url(url)
                 .build();
 
-        try {
-            Response response = okHttpClient.newCall(request).execute();
-            String responseString = response.body().string();
+        try (Response response = okHttpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                return null;
+            }
 
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return objectMapper.readValue(responseString, GooglePlacesResult.class).getResults();
+            GooglePlacesResult result = RESULT_READER.readValue(response.body().byteStream());
+            return result.getResults() == null ? null : Collections.unmodifiableList(result.getResults());
         } catch (IOException e) {
-            e.printStackTrace();
             return null;
         }
     }
+
+    private List<RestaurantSuggestion> unavailable() {
+        fallbackCount.increment();
+        return Collections.emptyList();
+    }
+
+    // "ＡＦＵＲＩ  Roppongi " and "afuri roppongi" are the same search as far
+    // as Places is concerned, so they share a cache entry.
+    static HttpUrl normalize(HttpUrl url) {
+        String query = url.queryParameter("query");
+        if (query == null) {
+            return url;
+        }
+
+        return url.newBuilder().setQueryParameter("query", SearchText.normalize(query)).build();
+    }
 }
@@ -0,0 +1,46 @@
+package com.tokyo.beach.restaurants.restaurant_suggestions;
+
+import com.tokyo.beach.restaurants.circuitbreaker.CircuitBreaker;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class RestaurantSuggestionsConfiguration {
+    @Bean
+    public OkHttpClient placesHttpClient(
+            @Value("${osusume.suggestions.connect-timeout-millis:2000}") long connectTimeoutMillis,
+            @Value("${osusume.suggestions.read-timeout-millis:5000}") long readTimeoutMillis
+    ) {
+        return new OkHttpClient.Builder()
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public CircuitBreaker placesCircuitBreaker(
+            @Value("${osusume.suggestions.breaker.window-size:20}") int windowSize,
+            @Value("${osusume.suggestions.breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${osusume.suggestions.breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${osusume.suggestions.breaker.slow-call-millis:3000}") long slowCallMillis,
+            @Value("${osusume.suggestions.breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${osusume.suggestions.breaker.open-seconds:30}") long openSeconds
+    ) {
+        return new CircuitBreaker(
+                windowSize,
+                minimumCalls,
+                failureRateThreshold,
+                Duration.ofMillis(slowCallMillis),
+                slowCallRateThreshold,
+                Duration.ofSeconds(openSeconds),
+                Clock.systemUTC()
+        );
+    }
+}
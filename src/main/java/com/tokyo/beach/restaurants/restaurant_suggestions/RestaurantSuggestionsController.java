@@ -1,35 +1,76 @@
 package com.tokyo.beach.restaurants.restaurant_suggestions;
 
+import com.tokyo.beach.restaurants.search.RestaurantSearchIndex;
 import okhttp3.HttpUrl;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.springframework.web.bind.annotation.RequestMethod.POST;
 
 @CrossOrigin
 @RestController
 public class RestaurantSuggestionsController {
-    private RestaurantSuggestionRepository restaurantSuggestionRepository;
+    private static final int MAX_LOCAL_SUGGESTIONS = 10;
+    // With this many restaurants of our own matching, Places is not asked.
+    private static final int LOCAL_ONLY_THRESHOLD = 5;
 
-    public RestaurantSuggestionsController() {
-        this.restaurantSuggestionRepository = new RestaurantSuggestionRepository();
-    }
+    private RestaurantSuggestionRepository restaurantSuggestionRepository;
+    private RestaurantSearchIndex restaurantSearchIndex;
 
-    public RestaurantSuggestionsController(RestaurantSuggestionRepository restaurantSuggestionRepository) {
+    @Autowired
+    public RestaurantSuggestionsController(
+            RestaurantSuggestionRepository restaurantSuggestionRepository,
+            RestaurantSearchIndex restaurantSearchIndex
+    ) {
         this.restaurantSuggestionRepository = restaurantSuggestionRepository;
+        this.restaurantSearchIndex = restaurantSearchIndex;
     }
 
     @RequestMapping(value = "/restaurant_suggestions", method = POST)
     public List<RestaurantSuggestion> getAll(@RequestBody RestaurantSuggestionParams params) {
+        List<RestaurantSuggestion> localSuggestions = restaurantSearchIndex
+                .search(params.getRestaurantName(), MAX_LOCAL_SUGGESTIONS)
+                .stream()
+                .map(RestaurantSuggestion::from)
+                .collect(toList());
+        if (localSuggestions.size() >= LOCAL_ONLY_THRESHOLD) {
+            return localSuggestions;
+        }
+
         String baseUrl = "https://maps.googleapis.com";
         String path = "/maps/api/place/textsearch/json";
         String key = "?key=" + System.getenv("GOOGLE_PLACES_KEY");
         String query = "&query=" + params.getRestaurantName();
         HttpUrl url = HttpUrl.parse(baseUrl + path + key + query);
-        return restaurantSuggestionRepository.getAll(url);
+        return merge(localSuggestions, restaurantSuggestionRepository.getAll(url));
+    }
+
+    private static List<RestaurantSuggestion> merge(
+            List<RestaurantSuggestion> localSuggestions,
+            List<RestaurantSuggestion> remoteSuggestions
+    ) {
+        if (remoteSuggestions == null) {
+            return localSuggestions;
+        }
+
+        Set<String> localPlaceIds = localSuggestions.stream()
+                .map(RestaurantSuggestion::getPlaceId)
+                .filter(Objects::nonNull)
+                .collect(toSet());
+        List<RestaurantSuggestion> suggestions = new ArrayList<>(localSuggestions);
+        remoteSuggestions.stream()
+                .filter(suggestion -> suggestion.getPlaceId() == null || !localPlaceIds.contains(suggestion.getPlaceId()))
+                .forEach(suggestions::add);
+        return suggestions;
     }
 }
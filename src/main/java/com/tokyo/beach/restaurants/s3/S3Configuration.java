@@ -0,0 +1,51 @@
+package com.tokyo.beach.restaurants.s3;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.S3ClientOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// One AmazonS3 client, and so one connection pool and credentials chain,
+// for the whole application. Setting osusume.s3.endpoint points it at an
+// S3-compatible stand-in using path-style bucket addressing.
+@Configuration
+public class S3Configuration {
+    @Bean
+    public AmazonS3 amazonS3(
+            @Value("${osusume.s3.endpoint:}") String endpoint,
+            @Value("${osusume.s3.max-connections:50}") int maxConnections,
+            @Value("${osusume.s3.connection-timeout-millis:2000}") int connectionTimeoutMillis,
+            @Value("${osusume.s3.socket-timeout-millis:10000}") int socketTimeoutMillis,
+            S3RequestMetrics s3RequestMetrics
+    ) {
+        return buildClient(
+                new DefaultAWSCredentialsProviderChain(),
+                endpoint,
+                new ClientConfiguration()
+                        .withMaxConnections(maxConnections)
+                        .withConnectionTimeout(connectionTimeoutMillis)
+                        .withSocketTimeout(socketTimeoutMillis),
+                s3RequestMetrics
+        );
+    }
+
+    public static AmazonS3 buildClient(
+            AWSCredentialsProvider credentialsProvider,
+            String endpoint,
+            ClientConfiguration clientConfiguration,
+            RequestMetricCollector requestMetricCollector
+    ) {
+        AmazonS3Client client = new AmazonS3Client(credentialsProvider, clientConfiguration, requestMetricCollector);
+        if (endpoint != null && !endpoint.isEmpty()) {
+            client.setEndpoint(endpoint);
+            client.setS3ClientOptions(S3ClientOptions.builder().setPathStyleAccess(true).build());
+        }
+        return client;
+    }
+}
@@ -0,0 +1,54 @@
+package com.tokyo.beach.restaurants.s3;
+
+public class S3Deletion {
+    private final long id;
+    private final String key;
+    private final int attempts;
+
+    public S3Deletion(long id, String key, int attempts) {
+        this.id = id;
+        this.key = key;
+        this.attempts = attempts;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        S3Deletion that = (S3Deletion) o;
+
+        if (id != that.id) return false;
+        if (attempts != that.attempts) return false;
+        return key != null ? key.equals(that.key) : that.key == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (id ^ (id >>> 32));
+        result = 31 * result + (key != null ? key.hashCode() : 0);
+        result = 31 * result + attempts;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "S3Deletion{" +
+                "id=" + id +
+                ", key='" + key + '\'' +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+package com.tokyo.beach.restaurants.s3;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+@Repository
+public class S3DeletionDataMapper {
+    private JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedTemplate;
+
+    @Autowired
+    public S3DeletionDataMapper(@SuppressWarnings("SpringJavaAutowiringInspection") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public void enqueue(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO s3_deletion (object_key) VALUES (?)",
+                keys.stream().map(key -> new Object[]{key}).collect(toList())
+        );
+    }
+
+    // Pushes next_attempt_at out to leaseUntil for the claimed rows, so a
+    // second worker skips them and a crashed worker's rows are retried once
+    // the lease runs out. RETURNING follows whatever join the planner picks,
+    // so the claimed rows are sorted oldest first afterwards.
+    public List<S3Deletion> claim(Instant now, Instant leaseUntil, int maxAttempts, int limit) {
+        return jdbcTemplate.query(
+                "WITH claimed AS (" +
+                        "UPDATE s3_deletion SET next_attempt_at = ? " +
+                        "WHERE id IN (" +
+                        "SELECT id FROM s3_deletion " +
+                        "WHERE next_attempt_at <= ? AND attempts < ? " +
+                        "ORDER BY id LIMIT ? " +
+                        "FOR UPDATE SKIP LOCKED) " +
+                        "RETURNING id, object_key, attempts) " +
+                        "SELECT id, object_key, attempts FROM claimed ORDER BY id",
+                (rs, rowNum) -> new S3Deletion(
+                        rs.getLong("id"),
+                        rs.getString("object_key"),
+                        rs.getInt("attempts")
+                ),
+                Timestamp.from(leaseUntil),
+                Timestamp.from(now),
+                maxAttempts,
+                limit
+        );
+    }
+
+    public void delete(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        namedTemplate.update(
+                "DELETE FROM s3_deletion WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids)
+        );
+    }
+
+    public void reschedule(long id, Instant nextAttemptAt, String error) {
+        jdbcTemplate.update(
+                "UPDATE s3_deletion SET attempts = attempts + 1, next_attempt_at = ?, last_error = ? WHERE id = ?",
+                Timestamp.from(nextAttemptAt),
+                error,
+                id
+        );
+    }
+}
@@ -0,0 +1,114 @@
+package com.tokyo.beach.restaurants.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+
+// Drains s3_deletion with multi-object deletes. Keys that fail are retried
+// with exponential backoff until maxAttempts, after which the row is left
+// in the table with its last error for someone to look at.
+@Component
+public class S3DeletionWorker {
+    static final int BATCH_SIZE = 1000;
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final S3DeletionDataMapper s3DeletionDataMapper;
+    private final AmazonS3 amazonS3;
+    private final String bucketName;
+    private final int maxAttempts;
+    private final Clock clock;
+
+    @Autowired
+    public S3DeletionWorker(
+            S3DeletionDataMapper s3DeletionDataMapper,
+            AmazonS3 amazonS3,
+            @Value("${AWS_S3_BUCKET_NAME:}") String bucketName,
+            @Value("${osusume.s3.deletion.max-attempts:10}") int maxAttempts
+    ) {
+        this(s3DeletionDataMapper, amazonS3, bucketName, maxAttempts, Clock.systemUTC());
+    }
+
+    public S3DeletionWorker(
+            S3DeletionDataMapper s3DeletionDataMapper,
+            AmazonS3 amazonS3,
+            String bucketName,
+            int maxAttempts,
+            Clock clock
+    ) {
+        this.s3DeletionDataMapper = s3DeletionDataMapper;
+        this.amazonS3 = amazonS3;
+        this.bucketName = bucketName;
+        this.maxAttempts = maxAttempts;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${osusume.s3.deletion.poll-millis:10000}")
+    public void drain() {
+        if (bucketName == null || bucketName.isEmpty()) {
+            return;
+        }
+
+        List<S3Deletion> batch;
+        do {
+            Instant now = clock.instant();
+            batch = s3DeletionDataMapper.claim(now, now.plus(LEASE), maxAttempts, BATCH_SIZE);
+            if (!batch.isEmpty()) {
+                process(batch, now);
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    private void process(List<S3Deletion> batch, Instant now) {
+        Map<String, String> failedKeys = deleteObjects(batch.stream().map(S3Deletion::getKey).collect(toList()));
+
+        s3DeletionDataMapper.delete(batch.stream()
+                .filter(deletion -> !failedKeys.containsKey(deletion.getKey()))
+                .map(S3Deletion::getId)
+                .collect(toList())
+        );
+
+        batch.stream()
+                .filter(deletion -> failedKeys.containsKey(deletion.getKey()))
+                .forEach(deletion -> s3DeletionDataMapper.reschedule(
+                        deletion.getId(),
+                        now.plus(backoff(deletion.getAttempts())),
+                        failedKeys.get(deletion.getKey())
+                ));
+    }
+
+    // Returns the keys S3 did not delete, mapped to the reason.
+    private Map<String, String> deleteObjects(List<String> keys) {
+        Map<String, String> failedKeys = new HashMap<>();
+        try {
+            amazonS3.deleteObjects(new DeleteObjectsRequest(bucketName)
+                    .withKeys(keys.toArray(new String[keys.size()]))
+                    .withQuiet(true));
+        } catch (MultiObjectDeleteException e) {
+            e.getErrors().forEach(error -> failedKeys.put(error.getKey(), error.getCode() + ": " + error.getMessage()));
+        } catch (AmazonClientException e) {
+            keys.forEach(key -> failedKeys.put(key, e.getMessage()));
+        }
+        return failedKeys;
+    }
+
+    static Duration backoff(int attempts) {
+        Duration backoff = INITIAL_BACKOFF.multipliedBy(1L << Math.min(attempts, 16));
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+}
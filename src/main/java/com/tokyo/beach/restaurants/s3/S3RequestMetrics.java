@@ -0,0 +1,66 @@
+package com.tokyo.beach.restaurants.s3;
+
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.TimingInfo;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Installed on the shared AmazonS3 client, which reports every request
+// here once it completes, successfully or not.
+@Component
+public class S3RequestMetrics extends RequestMetricCollector implements PublicMetrics {
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    @Override
+    public void collectMetrics(Request<?> request, Response<?> response) {
+        requestCount.increment();
+        if (response == null || hasException(request.getAWSRequestMetrics())) {
+            errorCount.increment();
+        }
+
+        TimingInfo timingInfo = request.getAWSRequestMetrics().getTimingInfo();
+        Double latency = timingInfo.getTimeTakenMillisIfKnown();
+        if (latency != null) {
+            long latencyMillis = latency.longValue();
+            totalLatencyMillis.add(latencyMillis);
+            maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+        }
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        long requests = requestCount.sum();
+        return Arrays.asList(
+                new Metric<>("s3.requests", requests),
+                new Metric<>("s3.errors", errorCount.sum()),
+                new Metric<>("s3.latency.mean", requests == 0 ? 0 : totalLatencyMillis.sum() / requests),
+                new Metric<>("s3.latency.max", maxLatencyMillis.get())
+        );
+    }
+
+    private static boolean hasException(AWSRequestMetrics metrics) {
+        List<Object> exceptions = metrics.getProperty(AWSRequestMetrics.Field.Exception);
+        return exceptions != null && !exceptions.isEmpty();
+    }
+}
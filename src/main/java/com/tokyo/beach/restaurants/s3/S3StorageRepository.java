@@ -1,34 +1,36 @@
 package com.tokyo.beach.restaurants.s3;
 
-import com.amazonaws.AmazonClientException;
-import com.amazonaws.AmazonServiceException;
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.AmazonS3Client;
-import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
+// Deletions are queued in s3_deletion and carried out by S3DeletionWorker,
+// so callers never wait on S3.
 @Repository
 public class S3StorageRepository {
+    private final S3DeletionDataMapper s3DeletionDataMapper;
+
+    @Autowired
+    public S3StorageRepository(S3DeletionDataMapper s3DeletionDataMapper) {
+        this.s3DeletionDataMapper = s3DeletionDataMapper;
+    }
+
     public void deleteFile(String urlString) {
-        String bucketName = System.getenv("AWS_S3_BUCKET_NAME");
-
-        AmazonS3 s3Client = new AmazonS3Client();
-
-        try {
-            String[] urlSplit = urlString.split("/");
-            String keyName = urlSplit[urlSplit.length - 1];
-
-            s3Client.deleteObject(new DeleteObjectRequest(bucketName, keyName));
-        } catch (AmazonServiceException ase) {
-            System.out.println("Caught an AmazonServiceException.");
-            System.out.println("Error Message:    " + ase.getMessage());
-            System.out.println("HTTP Status Code: " + ase.getStatusCode());
-            System.out.println("AWS Error Code:   " + ase.getErrorCode());
-            System.out.println("Error Type:       " + ase.getErrorType());
-            System.out.println("Request ID:       " + ase.getRequestId());
-        } catch (AmazonClientException ace) {
-            System.out.println("Caught an AmazonClientException.");
-            System.out.println("Error Message: " + ace.getMessage());
-        }
+        deleteFiles(singletonList(urlString));
+    }
+
+    public void deleteFiles(List<String> urlStrings) {
+        s3DeletionDataMapper.enqueue(
+                urlStrings.stream().map(S3StorageRepository::keyName).collect(toList())
+        );
+    }
+
+    static String keyName(String urlString) {
+        String[] urlSplit = urlString.split("/");
+        return urlSplit[urlSplit.length - 1];
     }
 }
@@ -0,0 +1,154 @@
+package com.tokyo.beach.restaurants.search;
+
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+// Buckets restaurant ids into a grid of CELL_DEGREES squares. A radius query
+// only visits the cells overlapping the circle's bounding box, then checks
+// the great-circle distance of each restaurant in them. Restaurants at
+// (0, 0) have no location and are left out.
+@Component
+public class RestaurantGeoIndex extends RestaurantIndex<RestaurantGeoIndex.Point> {
+    private static final double CELL_DEGREES = 0.01;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    private static final double METERS_PER_DEGREE_LATITUDE = Math.PI * EARTH_RADIUS_METERS / 180;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Point> pointsById = new HashMap<>();
+    private final Map<Long, Set<Long>> idsByCell = new HashMap<>();
+
+    @Autowired
+    public RestaurantGeoIndex(@SuppressWarnings("SpringJavaAutowiringInspection") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Ids of restaurants within radiusMeters, nearest first.
+    public List<Long> findNearby(double latitude, double longitude, double radiusMeters, int limit) {
+        double latitudeDelta = radiusMeters / METERS_PER_DEGREE_LATITUDE;
+        double longitudeDelta = latitudeDelta / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+
+        return read(() -> {
+            List<Neighbour> neighbours = new ArrayList<>();
+            for (long row = cell(latitude - latitudeDelta); row <= cell(latitude + latitudeDelta); row++) {
+                for (long column = cell(longitude - longitudeDelta); column <= cell(longitude + longitudeDelta); column++) {
+                    Set<Long> ids = idsByCell.get(cellKey(row, column));
+                    if (ids == null) {
+                        continue;
+                    }
+
+                    for (Long id : ids) {
+                        Point point = pointsById.get(id);
+                        double distance = distanceMeters(latitude, longitude, point.latitude, point.longitude);
+                        if (distance <= radiusMeters) {
+                            neighbours.add(new Neighbour(id, distance));
+                        }
+                    }
+                }
+            }
+
+            return neighbours.stream()
+                    .sorted((a, b) -> Double.compare(a.distance, b.distance))
+                    .limit(limit)
+                    .map(neighbour -> neighbour.id)
+                    .collect(toList());
+        });
+    }
+
+    @Override
+    protected List<Point> load() {
+        return jdbcTemplate.query(
+                "SELECT id, latitude, longitude FROM restaurant",
+                (rs, rowNum) -> new Point(rs.getLong("id"), rs.getDouble("latitude"), rs.getDouble("longitude"))
+        );
+    }
+
+    @Override
+    protected Point entryFor(Restaurant restaurant) {
+        return new Point(restaurant.getId(), restaurant.getLatitude(), restaurant.getLongitude());
+    }
+
+    @Override
+    protected void clear() {
+        pointsById.clear();
+        idsByCell.clear();
+    }
+
+    @Override
+    protected void add(Point point) {
+        if (point.latitude == 0 && point.longitude == 0) {
+            return;
+        }
+
+        pointsById.put(point.id, point);
+        idsByCell.computeIfAbsent(point.cellKey(), key -> new HashSet<>()).add(point.id);
+    }
+
+    @Override
+    protected void remove(long restaurantId) {
+        Point point = pointsById.remove(restaurantId);
+        if (point == null) {
+            return;
+        }
+
+        Set<Long> ids = idsByCell.get(point.cellKey());
+        ids.remove(restaurantId);
+        if (ids.isEmpty()) {
+            idsByCell.remove(point.cellKey());
+        }
+    }
+
+    private static long cell(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(long row, long column) {
+        return (row << 32) ^ (column & 0xffffffffL);
+    }
+
+    static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double latitudeDelta = Math.toRadians(latitude2 - latitude1);
+        double longitudeDelta = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(latitudeDelta / 2) * Math.sin(latitudeDelta / 2) +
+                Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) *
+                        Math.sin(longitudeDelta / 2) * Math.sin(longitudeDelta / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+
+    static class Point {
+        private final long id;
+        private final double latitude;
+        private final double longitude;
+
+        private Point(long id, double latitude, double longitude) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        private long cellKey() {
+            return RestaurantGeoIndex.cellKey(cell(latitude), cell(longitude));
+        }
+    }
+
+    private static class Neighbour {
+        private final long id;
+        private final double distance;
+
+        private Neighbour(long id, double distance) {
+            this.id = id;
+            this.distance = distance;
+        }
+    }
+}
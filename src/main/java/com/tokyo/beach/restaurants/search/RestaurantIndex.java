@@ -0,0 +1,119 @@
+package com.tokyo.beach.restaurants.search;
+
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import com.tokyo.beach.restaurants.restaurant.RestaurantChangeListener;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// An in-memory index over the restaurant table, one entry per restaurant.
+// Kept current through RestaurantDataMapper, and rebuilt from the table on a
+// timer to pick up changes made on other nodes. Changes reported while the
+// table is being read may be missing from what it returns, so they are
+// replayed once the rebuilt index has been swapped in.
+abstract class RestaurantIndex<E> implements RestaurantChangeListener {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private boolean loaded;
+    private Map<Long, Optional<E>> changesDuringRebuild;
+
+    protected abstract List<E> load();
+
+    protected abstract E entryFor(Restaurant restaurant);
+
+    protected abstract void clear();
+
+    protected abstract void add(E entry);
+
+    protected abstract void remove(long restaurantId);
+
+    @Override
+    public void restaurantSaved(Restaurant restaurant) {
+        apply(restaurant.getId(), Optional.of(entryFor(restaurant)));
+    }
+
+    @Override
+    public void restaurantDeleted(long restaurantId) {
+        apply(restaurantId, Optional.empty());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        ensureLoaded();
+    }
+
+    @Scheduled(
+            initialDelayString = "${osusume.search.rebuild-millis:600000}",
+            fixedDelayString = "${osusume.search.rebuild-millis:600000}"
+    )
+    public synchronized void rebuild() {
+        write(() -> changesDuringRebuild = new LinkedHashMap<>());
+        try {
+            List<E> entries = load();
+
+            write(() -> {
+                clear();
+                entries.forEach(this::add);
+                changesDuringRebuild.forEach(this::replace);
+                loaded = true;
+            });
+        } finally {
+            write(() -> changesDuringRebuild = null);
+        }
+    }
+
+    protected <T> T read(Supplier<T> query) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        rebuild();
+    }
+
+    private void apply(long restaurantId, Optional<E> entry) {
+        write(() -> {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(restaurantId, entry);
+            }
+            if (loaded) {
+                replace(restaurantId, entry);
+            }
+        });
+    }
+
+    private void replace(long restaurantId, Optional<E> entry) {
+        remove(restaurantId);
+        entry.ifPresent(this::add);
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.tokyo.beach.restaurants.search;
+
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.tokyo.beach.restaurants.restaurant.RestaurantRowMapper.restaurantRowMapper;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+
+// Every 1, 2 and 3 character substring of a restaurant's normalized name and
+// address maps to the restaurants containing it. A query of up to three
+// characters is a single lookup; longer queries intersect the postings of
+// their trigrams and then confirm the match.
+@Component
+public class RestaurantSearchIndex extends RestaurantIndex<RestaurantSearchIndex.Entry> {
+    private static final int GRAM_LENGTH = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Entry> entriesById = new HashMap<>();
+    private final Map<String, Set<Long>> idsByGram = new HashMap<>();
+
+    @Autowired
+    public RestaurantSearchIndex(@SuppressWarnings("SpringJavaAutowiringInspection") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Restaurant> search(String query, int limit) {
+        String normalizedQuery = SearchText.normalize(query);
+        if (normalizedQuery.isEmpty()) {
+            return emptyList();
+        }
+
+        return read(() -> candidates(normalizedQuery)
+                .stream()
+                .map(id -> new Match(entriesById.get(id), normalizedQuery))
+                .filter(match -> match.rank < Match.NO_MATCH)
+                .sorted()
+                .limit(limit)
+                .map(match -> match.entry.restaurant)
+                .collect(toList()));
+    }
+
+    @Override
+    protected List<Entry> load() {
+        return jdbcTemplate.query("SELECT * FROM restaurant", restaurantRowMapper)
+                .stream()
+                .map(Entry::new)
+                .collect(toList());
+    }
+
+    @Override
+    protected Entry entryFor(Restaurant restaurant) {
+        return new Entry(restaurant);
+    }
+
+    @Override
+    protected void clear() {
+        entriesById.clear();
+        idsByGram.clear();
+    }
+
+    private Set<Long> candidates(String normalizedQuery) {
+        if (normalizedQuery.length() <= GRAM_LENGTH) {
+            return idsByGram.getOrDefault(normalizedQuery, new HashSet<>());
+        }
+
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : grams(normalizedQuery, GRAM_LENGTH)) {
+            Set<Long> ids = idsByGram.get(gram);
+            if (ids == null) {
+                return new HashSet<>();
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> candidates = new HashSet<>(postings.get(0));
+        postings.subList(1, postings.size()).forEach(candidates::retainAll);
+        return candidates;
+    }
+
+    @Override
+    protected void add(Entry entry) {
+        long restaurantId = entry.restaurant.getId();
+        entriesById.put(restaurantId, entry);
+        entry.grams().forEach(gram -> idsByGram.computeIfAbsent(gram, key -> new HashSet<>()).add(restaurantId));
+    }
+
+    @Override
+    protected void remove(long restaurantId) {
+        Entry entry = entriesById.remove(restaurantId);
+        if (entry == null) {
+            return;
+        }
+
+        entry.grams().forEach(gram -> {
+            Set<Long> ids = idsByGram.get(gram);
+            ids.remove(restaurantId);
+            if (ids.isEmpty()) {
+                idsByGram.remove(gram);
+            }
+        });
+    }
+
+    private static Set<String> grams(String text, int length) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + length <= text.length(); i++) {
+            grams.add(text.substring(i, i + length));
+        }
+        return grams;
+    }
+
+    static class Entry {
+        private final Restaurant restaurant;
+        private final String name;
+        private final String address;
+
+        private Entry(Restaurant restaurant) {
+            this.restaurant = restaurant;
+            this.name = SearchText.normalize(restaurant.getName());
+            this.address = SearchText.normalize(restaurant.getAddress());
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (int length = 1; length <= GRAM_LENGTH; length++) {
+                grams.addAll(RestaurantSearchIndex.grams(name, length));
+                grams.addAll(RestaurantSearchIndex.grams(address, length));
+            }
+            return grams;
+        }
+    }
+
+    private static class Match implements Comparable<Match> {
+        private static final int NO_MATCH = 5;
+
+        private final Entry entry;
+        private final int rank;
+
+        private Match(Entry entry, String query) {
+            this.entry = entry;
+            this.rank = rank(entry, query);
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            if (rank != other.rank) {
+                return Integer.compare(rank, other.rank);
+            }
+            if (entry.name.length() != other.entry.name.length()) {
+                return Integer.compare(entry.name.length(), other.entry.name.length());
+            }
+            return Long.compare(entry.restaurant.getId(), other.entry.restaurant.getId());
+        }
+
+        // Lower is better: whole name, name prefix, word prefix, anywhere
+        // in the name, anywhere in the address.
+        private static int rank(Entry entry, String query) {
+            if (entry.name.equals(query)) {
+                return 0;
+            }
+            if (entry.name.startsWith(query)) {
+                return 1;
+            }
+            if (entry.name.contains(" " + query)) {
+                return 2;
+            }
+            if (entry.name.contains(query)) {
+                return 3;
+            }
+            if (entry.address.contains(query)) {
+                return 4;
+            }
+            return NO_MATCH;
+        }
+    }
+}
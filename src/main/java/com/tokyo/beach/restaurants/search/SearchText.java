@@ -0,0 +1,20 @@
+package com.tokyo.beach.restaurants.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+public class SearchText {
+    // Folds full-width and other compatibility forms ("ＡＦＵＲＩ" becomes
+    // "afuri"), case and runs of whitespace, so user input and stored names
+    // compare the same way.
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        return Normalizer.normalize(text, Normalizer.Form.NFKC)
+                .trim()
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+    }
+}
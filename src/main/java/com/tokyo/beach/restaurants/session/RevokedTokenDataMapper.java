@@ -0,0 +1,43 @@
+package com.tokyo.beach.restaurants.session;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+@Repository
+public class RevokedTokenDataMapper {
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public RevokedTokenDataMapper(@SuppressWarnings("SpringJavaAutowiringInspection") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void create(String jti, Instant expiresAt) {
+        jdbcTemplate.update(
+                "INSERT INTO revoked_token (jti, expires_at) VALUES (?, ?) ON CONFLICT (jti) DO NOTHING",
+                jti,
+                Timestamp.from(expiresAt)
+        );
+    }
+
+    public Set<String> findUnexpired(Instant now) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT jti FROM revoked_token WHERE expires_at > ?",
+                String.class,
+                Timestamp.from(now)
+        ));
+    }
+
+    public void deleteExpired(Instant now) {
+        jdbcTemplate.update(
+                "DELETE FROM revoked_token WHERE expires_at <= ?",
+                Timestamp.from(now)
+        );
+    }
+}
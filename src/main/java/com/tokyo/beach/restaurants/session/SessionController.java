@@ -15,16 +15,19 @@ public class SessionController {
     private SessionDataMapper sessionDataMapper;
     private UserDataMapper userDataMapper;
     private TokenGenerator tokenGenerator;
+    private SignedTokenService signedTokenService;
 
     @Autowired
     public SessionController(
             SessionDataMapper sessionDataMapper,
             UserDataMapper userDataMapper,
-            TokenGenerator tokenGenerator
+            TokenGenerator tokenGenerator,
+            SignedTokenService signedTokenService
     ) {
         this.sessionDataMapper = sessionDataMapper;
         this.userDataMapper = userDataMapper;
         this.tokenGenerator = tokenGenerator;
+        this.signedTokenService = signedTokenService;
     }
 
     @RequestMapping(value = "/session", method = RequestMethod.POST)
@@ -35,6 +38,10 @@ public class SessionController {
 
         maybeUser.orElseThrow(() -> new RestControllerException("Invalid email or password."));
 
+        if (signedTokenService.isEnabled()) {
+            return signedTokenService.create(maybeUser.get());
+        }
+
         return sessionDataMapper.create(tokenGenerator, maybeUser.get());
     }
 
@@ -42,7 +49,11 @@ public class SessionController {
     @ResponseStatus(HttpStatus.ACCEPTED)
     @ResponseBody
     public void delete(@RequestBody WrappedToken wrappedToken) {
-        sessionDataMapper.delete(wrappedToken.getToken());
+        if (signedTokenService.isSignedToken(wrappedToken.getToken())) {
+            signedTokenService.revoke(wrappedToken.getToken());
+        } else {
+            sessionDataMapper.delete(wrappedToken.getToken());
+        }
     }
 
     @RequestMapping(value = "/unauthenticated")
@@ -4,6 +4,7 @@ import com.tokyo.beach.restaurants.user.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsertOperations;
 import org.springframework.stereotype.Repository;
 
 import java.util.HashMap;
@@ -14,29 +15,38 @@ import java.util.Optional;
 @Repository
 public class SessionDataMapper {
     private JdbcTemplate jdbcTemplate;
+    private SessionTokenCache sessionTokenCache;
+    private final SimpleJdbcInsertOperations insertSession;
 
     @Autowired
-    public SessionDataMapper(JdbcTemplate jdbcTemplate) {
+    public SessionDataMapper(JdbcTemplate jdbcTemplate, SessionTokenCache sessionTokenCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.sessionTokenCache = sessionTokenCache;
+        this.insertSession = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("session")
+                .usingColumns("token", "user_id")
+                .withoutTableColumnMetaDataAccess();
     }
 
     public UserSession create(TokenGenerator generator, User user) {
         UserSession userSession = new UserSession(generator, user.getEmail(), user.getName(), user.getId());
 
-        SimpleJdbcInsert insert = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("session")
-                .usingColumns("token", "user_id");
-
         Map<String, Object> params = new HashMap<>();
         params.put("token", userSession.getToken());
         params.put("user_id", user.getId());
 
-        insert.execute(params);
+        insertSession.execute(params);
 
         return userSession;
     }
 
     public Optional<Long> validateToken(String token) {
+        Optional<Long> cachedUserId = sessionTokenCache.get(token);
+        if (cachedUserId.isPresent()) {
+            return cachedUserId;
+        }
+
+        long generation = sessionTokenCache.generation();
         List<Long> userIds = jdbcTemplate.query(
                 "SELECT user_id FROM session where token = ?",
                (rs, rowNum) -> rs.getLong("user_id"),
@@ -44,6 +54,7 @@ public class SessionDataMapper {
         );
 
         if (userIds.size() == 1) {
+            sessionTokenCache.put(token, userIds.get(0), generation);
             return Optional.of(userIds.get(0));
         }
         return Optional.empty();
@@ -54,5 +65,6 @@ public class SessionDataMapper {
                 "DELETE from session WHERE token = ?",
                 token
         );
+        sessionTokenCache.invalidate(token);
     }
 }
@@ -0,0 +1,68 @@
+package com.tokyo.beach.restaurants.session;
+
+import com.tokyo.beach.restaurants.cache.ExpiringCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+// Invalidation only clears this node's cache. A token deleted through another
+// node stays valid here until its entry expires, at most ttl-seconds later.
+@Component
+public class SessionTokenCache implements PublicMetrics {
+    private final ExpiringCache<String, Long> userIdsByToken;
+    private long invalidations;
+
+    @Autowired
+    public SessionTokenCache(
+            @Value("${osusume.session.cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${osusume.session.cache.max-size:10000}") int maxSize
+    ) {
+        this.userIdsByToken = new ExpiringCache<>(ttlSeconds * 1000, maxSize);
+    }
+
+    public Optional<Long> get(String token) {
+        return userIdsByToken.get(token);
+    }
+
+    // Read before looking the token up in the session table. If any token is
+    // invalidated in the meantime, put skips the lookup's now possibly stale
+    // result instead of caching it.
+    public synchronized long generation() {
+        return invalidations;
+    }
+
+    public synchronized void put(String token, Long userId, long generation) {
+        if (generation == invalidations) {
+            userIdsByToken.put(token, userId);
+        }
+    }
+
+    public synchronized void invalidate(String token) {
+        invalidations++;
+        userIdsByToken.invalidate(token);
+    }
+
+    public long getHitCount() {
+        return userIdsByToken.getHitCount();
+    }
+
+    public long getMissCount() {
+        return userIdsByToken.getMissCount();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("session.cache.hits", userIdsByToken.getHitCount()),
+                new Metric<>("session.cache.misses", userIdsByToken.getMissCount()),
+                new Metric<>("session.cache.evictions", userIdsByToken.getEvictionCount()),
+                new Metric<>("session.cache.size", userIdsByToken.size())
+        );
+    }
+}
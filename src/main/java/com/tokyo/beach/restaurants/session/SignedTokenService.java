@@ -0,0 +1,185 @@
+package com.tokyo.beach.restaurants.session;
+
+import com.tokyo.beach.restaurants.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+// Tokens look like "v1.<payload>.<signature>" where the payload is
+// "userId:issuedAt:expiresAt:jti" and the signature is HMAC-SHA256 over
+// "v1.<payload>". Opaque session tokens never contain a '.', so both
+// formats can be accepted side by side.
+@Component
+public class SignedTokenService {
+    private static final String PREFIX = "v1.";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final RevokedTokenDataMapper revokedTokenDataMapper;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+
+    private volatile Set<String> revokedJtis = Collections.emptySet();
+
+    @Autowired
+    public SignedTokenService(
+            @Value("${osusume.session.signing-key:}") String signingKey,
+            @Value("${osusume.session.signed-token-ttl-hours:720}") long ttlHours,
+            RevokedTokenDataMapper revokedTokenDataMapper
+    ) {
+        this(signingKey, Duration.ofHours(ttlHours), revokedTokenDataMapper, Clock.systemUTC());
+    }
+
+    public SignedTokenService(
+            String signingKey,
+            Duration ttl,
+            RevokedTokenDataMapper revokedTokenDataMapper,
+            Clock clock
+    ) {
+        this.key = signingKey == null || signingKey.isEmpty()
+                ? null
+                : new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttl = ttl;
+        this.revokedTokenDataMapper = revokedTokenDataMapper;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return key != null;
+    }
+
+    public boolean isSignedToken(String token) {
+        return token != null && token.startsWith(PREFIX);
+    }
+
+    public UserSession create(User user) {
+        Instant issuedAt = clock.instant();
+        String payload = user.getId() + ":" +
+                issuedAt.getEpochSecond() + ":" +
+                issuedAt.plus(ttl).getEpochSecond() + ":" +
+                nextJti();
+        String unsigned = PREFIX + encode(payload.getBytes(StandardCharsets.UTF_8));
+        String token = unsigned + "." + encode(sign(unsigned));
+
+        return new UserSession(token, user.getEmail(), user.getName(), user.getId());
+    }
+
+    public Optional<Long> validateToken(String token) {
+        return parse(token)
+                .filter(claims -> !revokedJtis.contains(claims.jti))
+                .map(claims -> claims.userId);
+    }
+
+    public synchronized void revoke(String token) {
+        Optional<Claims> maybeClaims = parse(token);
+        if (!maybeClaims.isPresent()) {
+            return;
+        }
+
+        Claims claims = maybeClaims.get();
+        revokedTokenDataMapper.create(claims.jti, claims.expiresAt);
+
+        Set<String> updated = new HashSet<>(revokedJtis);
+        updated.add(claims.jti);
+        revokedJtis = updated;
+    }
+
+    // Picks up revocations made on other nodes; keeps the request path free of
+    // database reads.
+    @Scheduled(fixedDelayString = "${osusume.session.revocation-refresh-millis:30000}")
+    public synchronized void refreshRevocations() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        revokedTokenDataMapper.deleteExpired(now);
+        revokedJtis = revokedTokenDataMapper.findUnexpired(now);
+    }
+
+    private Optional<Claims> parse(String token) {
+        if (!isEnabled() || !isSignedToken(token)) {
+            return Optional.empty();
+        }
+
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart <= PREFIX.length()) {
+            return Optional.empty();
+        }
+
+        try {
+            String unsigned = token.substring(0, signatureStart);
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(signature, sign(unsigned))) {
+                return Optional.empty();
+            }
+
+            String payload = new String(
+                    Base64.getUrlDecoder().decode(unsigned.substring(PREFIX.length())),
+                    StandardCharsets.UTF_8
+            );
+            String[] parts = payload.split(":");
+            if (parts.length != 4) {
+                return Optional.empty();
+            }
+
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[2]));
+            if (!clock.instant().isBefore(expiresAt)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new Claims(Long.parseLong(parts[0]), expiresAt, parts[3]));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String unsigned) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(unsigned.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String nextJti() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return encode(bytes);
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static class Claims {
+        private final long userId;
+        private final Instant expiresAt;
+        private final String jti;
+
+        Claims(long userId, Instant expiresAt, String jti) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+            this.jti = jti;
+        }
+    }
+}
@@ -7,7 +7,11 @@ public class UserSession {
     private String token;
 
     public UserSession(TokenGenerator tokenGenerator, String email, String name, Long id) {
-        this.token = tokenGenerator.nextToken();
+        this(tokenGenerator.nextToken(), email, name, id);
+    }
+
+    public UserSession(String token, String email, String name, Long id) {
+        this.token = token;
         this.email = email;
         this.name = name;
         this.id = id;
@@ -6,6 +6,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsertOperations;
 import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
@@ -18,24 +19,27 @@ import java.util.Optional;
 @Repository
 public class UserDataMapper {
     private JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedTemplate;
+    private final SimpleJdbcInsertOperations insertUser;
 
     @Autowired
     public UserDataMapper(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
-    }
-
-    public User create(String email, String password, String name) {
-        SimpleJdbcInsert insert = new SimpleJdbcInsert(jdbcTemplate)
+        this.namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.insertUser = new SimpleJdbcInsert(jdbcTemplate)
                 .withTableName("users")
                 .usingColumns("email", "password", "name")
-                .usingGeneratedKeyColumns("id");
+                .usingGeneratedKeyColumns("id")
+                .withoutTableColumnMetaDataAccess();
+    }
 
+    public User create(String email, String password, String name) {
         Map<String, Object> params = new HashMap<>();
         params.put("email", email);
         params.put("password", password);
         params.put("name", name);
 
-        Number id = insert.executeAndReturnKey(params);
+        Number id = insertUser.executeAndReturnKey(params);
 
         return new User(id.longValue(), email, name);
     }
@@ -74,7 +78,6 @@ public class UserDataMapper {
     public List<User> findForUserIds(List<Long> ids) {
         MapSqlParameterSource parameters = new MapSqlParameterSource();
         parameters.addValue("ids", ids);
-        NamedParameterJdbcTemplate namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
 
         return namedTemplate.query(
                 "SELECT * FROM users WHERE id IN (:ids)",
@@ -0,0 +1,15 @@
+package com.tokyo.beach.restutils;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    private String errorMessage;
+
+    public PreconditionFailedException(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    @SuppressWarnings("unused")
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -17,4 +17,10 @@ public class RestControllerExceptionHandler {
         return new ResourceError(e.getErrorMessage());
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ResourceError preconditionFailed(PreconditionFailedException e) {
+        return new ResourceError(e.getErrorMessage());
+    }
+
 }
@@ -0,0 +1,37 @@
+-- RESTAURANT revision, bumped by triggers whenever a like, photo or comment
+-- of the restaurant changes
+-- Together with version it identifies everything a restaurant response is
+-- built from, so GET /restaurants and GET /restaurants/{id} can answer
+-- If-None-Match without loading photos, comments or likes.
+
+ALTER TABLE restaurant ADD COLUMN revision BIGINT DEFAULT 1 NOT NULL;
+
+CREATE OR REPLACE FUNCTION update_restaurant_like_count() RETURNS TRIGGER AS $$
+BEGIN
+  IF (TG_OP = 'INSERT') THEN
+    UPDATE restaurant SET like_count = like_count + 1, revision = revision + 1 WHERE id = NEW.restaurant_id;
+  ELSIF (TG_OP = 'DELETE') THEN
+    UPDATE restaurant SET like_count = like_count - 1, revision = revision + 1 WHERE id = OLD.restaurant_id;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION bump_restaurant_revision() RETURNS TRIGGER AS $$
+BEGIN
+  IF (TG_OP = 'DELETE') THEN
+    UPDATE restaurant SET revision = revision + 1 WHERE id = OLD.restaurant_id;
+  ELSE
+    UPDATE restaurant SET revision = revision + 1 WHERE id = NEW.restaurant_id;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER photo_url_bump_restaurant_revision
+AFTER INSERT OR UPDATE OR DELETE ON photo_url
+FOR EACH ROW EXECUTE PROCEDURE bump_restaurant_revision();
+
+CREATE TRIGGER comment_bump_restaurant_revision
+AFTER INSERT OR UPDATE OR DELETE ON comment
+FOR EACH ROW EXECUTE PROCEDURE bump_restaurant_revision();
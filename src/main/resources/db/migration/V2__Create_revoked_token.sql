@@ -0,0 +1,9 @@
+-- REVOKED_TOKEN Table
+
+CREATE TABLE revoked_token (
+  jti VARCHAR(64) PRIMARY KEY NOT NULL,
+  expires_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  created_at TIMESTAMP WITHOUT TIME ZONE DEFAULT current_timestamp NOT NULL
+);
+
+CREATE INDEX index_revoked_token_on_expires_at ON revoked_token USING BTREE (expires_at);
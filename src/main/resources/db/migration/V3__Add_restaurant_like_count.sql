@@ -0,0 +1,22 @@
+-- RESTAURANT like_count, maintained by triggers on likes
+
+ALTER TABLE restaurant ADD COLUMN like_count BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE restaurant SET like_count = counts.like_count
+FROM (SELECT restaurant_id, count(*) AS like_count FROM likes GROUP BY restaurant_id) counts
+WHERE restaurant.id = counts.restaurant_id;
+
+CREATE FUNCTION update_restaurant_like_count() RETURNS TRIGGER AS $$
+BEGIN
+  IF (TG_OP = 'INSERT') THEN
+    UPDATE restaurant SET like_count = like_count + 1 WHERE id = NEW.restaurant_id;
+  ELSIF (TG_OP = 'DELETE') THEN
+    UPDATE restaurant SET like_count = like_count - 1 WHERE id = OLD.restaurant_id;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER likes_update_restaurant_like_count
+AFTER INSERT OR DELETE ON likes
+FOR EACH ROW EXECUTE PROCEDURE update_restaurant_like_count();
@@ -0,0 +1,12 @@
+-- S3_DELETION Table
+
+CREATE TABLE s3_deletion (
+  id BIGSERIAL PRIMARY KEY NOT NULL,
+  object_key VARCHAR(1024) NOT NULL,
+  attempts INTEGER DEFAULT 0 NOT NULL,
+  next_attempt_at TIMESTAMP WITHOUT TIME ZONE DEFAULT current_timestamp NOT NULL,
+  last_error TEXT,
+  created_at TIMESTAMP WITHOUT TIME ZONE DEFAULT current_timestamp NOT NULL
+);
+
+CREATE INDEX index_s3_deletion_on_next_attempt_at ON s3_deletion USING BTREE (next_attempt_at);
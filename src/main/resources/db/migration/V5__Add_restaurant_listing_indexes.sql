@@ -0,0 +1,9 @@
+-- RESTAURANT listing indexes
+-- Each filter column leads its own index so a filtered page is read in
+-- (created_at DESC, id DESC) order straight off the index and stops at LIMIT.
+-- The filter columns are also the restaurant foreign keys.
+
+CREATE INDEX index_restaurant_on_created_at_id ON restaurant USING BTREE (created_at DESC, id DESC);
+CREATE INDEX index_restaurant_on_cuisine_id_created_at_id ON restaurant USING BTREE (cuisine_id, created_at DESC, id DESC);
+CREATE INDEX index_restaurant_on_price_range_id_created_at_id ON restaurant USING BTREE (price_range_id, created_at DESC, id DESC);
+CREATE INDEX index_restaurant_on_created_by_user_id_created_at_id ON restaurant USING BTREE (created_by_user_id, created_at DESC, id DESC);
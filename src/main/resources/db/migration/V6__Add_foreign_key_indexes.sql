@@ -0,0 +1,8 @@
+-- Foreign key and lookup indexes
+-- restaurant.created_by_user_id is covered by the listing index added in V5.
+
+CREATE INDEX index_photo_url_on_restaurant_id ON photo_url USING BTREE (restaurant_id);
+CREATE INDEX index_comment_on_restaurant_id_created_at ON comment USING BTREE (restaurant_id, created_at DESC);
+CREATE INDEX index_likes_on_user_id_restaurant_id ON likes USING BTREE (user_id, restaurant_id);
+CREATE INDEX index_session_on_user_id ON session USING BTREE (user_id);
+CREATE INDEX index_users_on_lower_email ON users USING BTREE (lower(email));
@@ -0,0 +1,58 @@
+-- RESTAURANT_SEARCH Table
+-- One full-text document per restaurant, kept apart from restaurant so
+-- SELECT * listings do not carry it. Triggers on restaurant and comment keep
+-- it current. 'simple' is used because much of the content is Japanese,
+-- which the English stemmer would mangle.
+
+CREATE TABLE restaurant_search (
+  restaurant_id BIGINT PRIMARY KEY REFERENCES restaurant(id) ON DELETE CASCADE NOT NULL,
+  document TSVECTOR NOT NULL
+);
+
+CREATE INDEX index_restaurant_search_on_document ON restaurant_search USING GIN (document);
+
+CREATE FUNCTION restaurant_search_document(target_id BIGINT) RETURNS TSVECTOR AS $$
+  SELECT coalesce((
+    SELECT
+      setweight(to_tsvector('simple', coalesce(restaurant.name, '')), 'A') ||
+      setweight(to_tsvector('simple', coalesce(restaurant.nearest_station, '')), 'B') ||
+      setweight(to_tsvector('simple', coalesce(restaurant.notes, '')), 'C') ||
+      setweight(to_tsvector('simple', coalesce(
+        (SELECT string_agg(comment.content, ' ') FROM comment WHERE comment.restaurant_id = restaurant.id), ''
+      )), 'D')
+    FROM restaurant WHERE restaurant.id = target_id
+  ), ''::tsvector);
+$$ LANGUAGE sql STABLE;
+
+CREATE FUNCTION update_restaurant_search_for_restaurant() RETURNS TRIGGER AS $$
+BEGIN
+  IF (TG_OP = 'INSERT') THEN
+    INSERT INTO restaurant_search (restaurant_id, document) VALUES (NEW.id, restaurant_search_document(NEW.id));
+  ELSE
+    UPDATE restaurant_search SET document = restaurant_search_document(NEW.id) WHERE restaurant_id = NEW.id;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER restaurant_update_restaurant_search
+AFTER INSERT OR UPDATE OF name, nearest_station, notes ON restaurant
+FOR EACH ROW EXECUTE PROCEDURE update_restaurant_search_for_restaurant();
+
+CREATE FUNCTION update_restaurant_search_for_comment() RETURNS TRIGGER AS $$
+BEGIN
+  IF (TG_OP = 'DELETE') THEN
+    UPDATE restaurant_search SET document = restaurant_search_document(OLD.restaurant_id) WHERE restaurant_id = OLD.restaurant_id;
+  ELSE
+    UPDATE restaurant_search SET document = restaurant_search_document(NEW.restaurant_id) WHERE restaurant_id = NEW.restaurant_id;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER comment_update_restaurant_search
+AFTER INSERT OR UPDATE OF content OR DELETE ON comment
+FOR EACH ROW EXECUTE PROCEDURE update_restaurant_search_for_comment();
+
+INSERT INTO restaurant_search (restaurant_id, document)
+SELECT id, restaurant_search_document(id) FROM restaurant;
@@ -0,0 +1,17 @@
+-- PHOTO_URL unique (restaurant_id, url)
+-- Lets concurrent updates insert photos with ON CONFLICT DO NOTHING instead
+-- of racing to add the same URL twice. It also serves restaurant_id lookups,
+-- so the single-column index from V6 is dropped.
+
+DELETE FROM photo_url
+WHERE id IN (
+  SELECT id FROM (
+    SELECT id, row_number() OVER (PARTITION BY restaurant_id, url ORDER BY id) AS position
+    FROM photo_url
+  ) numbered
+  WHERE numbered.position > 1
+);
+
+CREATE UNIQUE INDEX index_photo_url_on_restaurant_id_url ON photo_url USING BTREE (restaurant_id, url);
+
+DROP INDEX index_photo_url_on_restaurant_id;
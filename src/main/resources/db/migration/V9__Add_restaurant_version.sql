@@ -0,0 +1,5 @@
+-- RESTAURANT version, bumped by every update
+-- PATCH /restaurants/{id} compares it against If-Match so concurrent editors
+-- get a 412 instead of overwriting each other.
+
+ALTER TABLE restaurant ADD COLUMN version BIGINT DEFAULT 1 NOT NULL;
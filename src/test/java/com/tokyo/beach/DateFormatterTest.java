@@ -0,0 +1,54 @@
+package com.tokyo.beach;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.tokyo.beach.restaurants.SerializedDateSerializer;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+import static com.tokyo.beach.restaurants.DateFormatter.UTC;
+import static com.tokyo.beach.restaurants.DateFormatter.formatDateForSerialization;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class DateFormatterTest {
+    @Test
+    public void test_formatDateForSerialization_usesMillisecondPrecision() {
+        ZonedDateTime date = ZonedDateTime.ofInstant(Instant.parse("2016-05-01T09:08:07.123456Z"), UTC);
+
+        assertThat(formatDateForSerialization(date), is("2016-05-01T09:08:07.123Z"));
+    }
+
+    @Test
+    public void test_serializedDateSerializer_matchesFormatDateForSerialization() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String[] instants = {
+                "1970-01-01T00:00:00Z",
+                "2016-12-31T23:59:59.999Z",
+                "0001-02-03T04:05:06.007Z",
+                "+12016-05-01T00:00:00Z"
+        };
+
+        for (String instant : instants) {
+            ZonedDateTime date = ZonedDateTime.ofInstant(Instant.parse(instant), UTC);
+
+            assertThat(
+                    objectMapper.writeValueAsString(new DateHolder(date)),
+                    is("{\"date\":\"" + formatDateForSerialization(date) + "\"}")
+            );
+        }
+    }
+
+    private static class DateHolder {
+        @JsonProperty("date")
+        @JsonSerialize(using = SerializedDateSerializer.class)
+        private final ZonedDateTime date;
+
+        DateHolder(ZonedDateTime date) {
+            this.date = date;
+        }
+    }
+}
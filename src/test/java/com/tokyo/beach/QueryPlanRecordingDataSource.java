@@ -0,0 +1,128 @@
+package com.tokyo.beach;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Records every prepared statement together with its bound parameters so the
+// same query can be replayed under EXPLAIN.
+public class QueryPlanRecordingDataSource extends DelegatingDataSource {
+    private final List<RecordedStatement> statements = Collections.synchronizedList(new ArrayList<>());
+
+    public QueryPlanRecordingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public List<RecordedStatement> getStatements() {
+        return new ArrayList<>(statements);
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    // One plan per recorded statement, each rendered as EXPLAIN's text output.
+    public List<String> explainAll() throws SQLException {
+        List<String> plans = new ArrayList<>();
+        try (Connection connection = getTargetDataSource().getConnection()) {
+            for (RecordedStatement statement : getStatements()) {
+                plans.add(explain(connection, statement));
+            }
+        }
+        return plans;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recording(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return recording(super.getConnection(username, password));
+    }
+
+    private static String explain(Connection connection, RecordedStatement statement) throws SQLException {
+        StringBuilder plan = new StringBuilder(statement.getSql()).append('\n');
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.getSql())) {
+            for (Map.Entry<Integer, Object> parameter : statement.getParameters().entrySet()) {
+                explain.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(method, connection, args);
+                    if (method.getName().equals("prepareStatement")) {
+                        RecordedStatement statement = new RecordedStatement((String) args[0]);
+                        statements.add(statement);
+                        return recording((PreparedStatement) result, statement);
+                    }
+                    return result;
+                }
+        );
+    }
+
+    private static PreparedStatement recording(PreparedStatement preparedStatement, RecordedStatement statement) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("setNull")) {
+                        statement.parameters.put((Integer) args[0], null);
+                    } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        statement.parameters.put((Integer) args[0], args[1]);
+                    }
+                    return invoke(method, preparedStatement, args);
+                }
+        );
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    public static class RecordedStatement {
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private RecordedStatement(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public Map<Integer, Object> getParameters() {
+            return parameters;
+        }
+    }
+}
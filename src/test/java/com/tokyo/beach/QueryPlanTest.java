@@ -0,0 +1,304 @@
+package com.tokyo.beach;
+
+import com.tokyo.beach.restaurants.comment.Comment;
+import com.tokyo.beach.restaurants.comment.CommentDataMapper;
+import com.tokyo.beach.restaurants.comment.CommentRepository;
+import com.tokyo.beach.restaurants.comment.NewComment;
+import com.tokyo.beach.restaurants.cuisine.CuisineDataMapper;
+import com.tokyo.beach.restaurants.like.LikeDataMapper;
+import com.tokyo.beach.restaurants.photos.PhotoDataMapper;
+import com.tokyo.beach.restaurants.pricerange.PriceRangeDataMapper;
+import com.tokyo.beach.restaurants.restaurant.NewRestaurant;
+import com.tokyo.beach.restaurants.restaurant.RestaurantDataMapper;
+import com.tokyo.beach.restaurants.restaurant.RestaurantDetailDataMapper;
+import com.tokyo.beach.restaurants.restaurant.RestaurantFilter;
+import com.tokyo.beach.restaurants.s3.S3DeletionDataMapper;
+import com.tokyo.beach.restaurants.session.LogonCredentials;
+import com.tokyo.beach.restaurants.session.RevokedTokenDataMapper;
+import com.tokyo.beach.restaurants.session.SessionDataMapper;
+import com.tokyo.beach.restaurants.session.SessionTokenCache;
+import com.tokyo.beach.restaurants.user.UserDataMapper;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.tokyo.beach.TestDatabaseUtils.*;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+// Seeds enough rows for the planner to prefer an index whenever one fits,
+// then fails if any data-mapper query sequentially scans a large table.
+// cuisine and price_range are small reference tables and are allowed, as are
+// the statements in ALLOWED_SEQ_SCANS.
+public class QueryPlanTest {
+    private static final int USERS = 20000;
+    private static final int RESTAURANTS = 20000;
+    private static final int LIKING_USERS = 2000;
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    private static final List<String> REFERENCE_TABLES = asList("cuisine", "price_range");
+    private static final List<Pattern> ALLOWED_SEQ_SCANS = asList(
+            // An unanchored substring match cannot use a btree index, and a
+            // trigram index needs the pg_trgm extension, which only a
+            // superuser can create on 9.6. Common names are still read off
+            // the listing index until LIMIT; a rare one scans the table.
+            Pattern.compile("name ILIKE"),
+            // Loads every revocation that has not expired yet, which is
+            // nearly all of them because expired rows are purged on a timer.
+            Pattern.compile("^SELECT jti FROM revoked_token WHERE expires_at > \\?$")
+    );
+
+    private static JdbcTemplate jdbcTemplate;
+    private static long userId;
+    private static long restaurantId;
+    private static long cuisineId;
+    private static long priceRangeId;
+
+    private QueryPlanRecordingDataSource dataSource;
+    private JdbcTemplate recordingJdbcTemplate;
+
+    @BeforeClass
+    public static void seed() {
+        jdbcTemplate = new JdbcTemplate(buildDataSource());
+        truncateAllTables(jdbcTemplate);
+
+        jdbcTemplate.update("INSERT INTO cuisine (name) SELECT 'Cuisine ' || n FROM generate_series(1, 20) n");
+        jdbcTemplate.update("INSERT INTO price_range (range) SELECT 'Range ' || n FROM generate_series(1, 5) n");
+        jdbcTemplate.update(
+                "INSERT INTO users (email, name, password) " +
+                        "SELECT 'user' || n || '@pivotal.io', 'User ' || n, 'password' FROM generate_series(1, ?) n",
+                USERS
+        );
+        jdbcTemplate.update(
+                "INSERT INTO restaurant (name, address, notes, cuisine_id, price_range_id, created_by_user_id, created_at) " +
+                        "SELECT 'Restaurant ' || n, 'Address ' || n, " +
+                        "CASE WHEN n % 1000 = 0 THEN 'omakase counter' END, " +
+                        "(SELECT min(id) FROM cuisine) + n % 20, " +
+                        "(SELECT min(id) FROM price_range) + n % 5, " +
+                        "(SELECT min(id) FROM users) + n % ?, " +
+                        "timestamp '2016-01-01' + n * interval '1 minute' " +
+                        "FROM generate_series(1, ?) n",
+                USERS,
+                RESTAURANTS
+        );
+        jdbcTemplate.update(
+                "INSERT INTO photo_url (url, restaurant_id) " +
+                        "SELECT 'http://photo/' || restaurant.id || '/' || n, restaurant.id " +
+                        "FROM restaurant, generate_series(1, 3) n"
+        );
+        jdbcTemplate.update(
+                "INSERT INTO comment (content, restaurant_id, created_by_user_id) " +
+                        "SELECT 'comment ' || n, restaurant.id, restaurant.created_by_user_id " +
+                        "FROM restaurant, generate_series(1, 2) n"
+        );
+        jdbcTemplate.update(
+                "INSERT INTO likes (restaurant_id, user_id) " +
+                        "SELECT (SELECT min(id) FROM restaurant) + (u * 37 + k * 101) % ?, " +
+                        "(SELECT min(id) FROM users) + u " +
+                        "FROM generate_series(0, ? - 1) u, generate_series(0, 9) k",
+                RESTAURANTS,
+                LIKING_USERS
+        );
+        jdbcTemplate.update(
+                "INSERT INTO session (token, user_id) SELECT 'token-' || id, id FROM users"
+        );
+        jdbcTemplate.update(
+                "INSERT INTO revoked_token (jti, expires_at) " +
+                        "SELECT 'jti-' || n, now() + (n - 10) * interval '1 minute' FROM generate_series(1, ?) n",
+                USERS
+        );
+        jdbcTemplate.update(
+                "INSERT INTO s3_deletion (object_key, next_attempt_at) " +
+                        "SELECT 'key-' || n, now() + (n - 10) * interval '1 minute' FROM generate_series(1, ?) n",
+                RESTAURANTS
+        );
+        // VACUUM also flushes the GIN pending list, which would otherwise
+        // make the search index look more or less costly depending on
+        // whether autovacuum has reached it yet.
+        jdbcTemplate.execute("VACUUM ANALYZE");
+
+        userId = jdbcTemplate.queryForObject("SELECT min(id) FROM users", Long.class);
+        restaurantId = jdbcTemplate.queryForObject("SELECT min(id) FROM restaurant", Long.class);
+        cuisineId = jdbcTemplate.queryForObject("SELECT min(id) FROM cuisine", Long.class);
+        priceRangeId = jdbcTemplate.queryForObject("SELECT min(id) FROM price_range", Long.class);
+    }
+
+    // Re-analyze the emptied tables so later tests are not planned against
+    // this class's statistics.
+    @AfterClass
+    public static void tearDown() {
+        truncateAllTables(jdbcTemplate);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Before
+    public void setUp() {
+        dataSource = new QueryPlanRecordingDataSource(buildDataSource());
+        recordingJdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    public void test_restaurantDataMapper_queriesUseIndexes() throws Exception {
+        RestaurantDataMapper restaurantDataMapper = new RestaurantDataMapper(recordingJdbcTemplate);
+
+        restaurantDataMapper.get(restaurantId);
+        restaurantDataMapper.getPage(RestaurantFilter.NONE, Optional.empty(), 21);
+        restaurantDataMapper.getPage(new RestaurantFilter(cuisineId, null, null, null), Optional.empty(), 21);
+        restaurantDataMapper.getPage(new RestaurantFilter(null, priceRangeId, null, null), Optional.empty(), 21);
+        restaurantDataMapper.getPage(new RestaurantFilter(null, null, userId, null), Optional.empty(), 21);
+        restaurantDataMapper.getRestaurantsPostedByUser(userId);
+        restaurantDataMapper.getRestaurantsByIds(asList(restaurantId, restaurantId + 1));
+        restaurantDataMapper.search("omakase", 20);
+        restaurantDataMapper.getPage(new RestaurantFilter(null, null, null, "Restaurant 12345"), Optional.empty(), 21);
+        restaurantDataMapper.getAll();
+        restaurantDataMapper.updateRestaurant(restaurantId + 100, newRestaurant(), Optional.of(1L));
+        restaurantDataMapper.delete(restaurantId + 101);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    public void test_restaurantDetailDataMapper_queryUsesIndexes() throws Exception {
+        new RestaurantDetailDataMapper(recordingJdbcTemplate).get(restaurantId, userId);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    public void test_photoDataMapper_queriesUseIndexes() throws Exception {
+        PhotoDataMapper photoDataMapper = new PhotoDataMapper(recordingJdbcTemplate);
+
+        photoDataMapper.findForRestaurant(restaurantId);
+        photoDataMapper.findForRestaurants(asList(restaurantId, restaurantId + 1, restaurantId + 2));
+        long photoUrlId = photoDataMapper.findForRestaurant(restaurantId + 102).get(0).getId();
+        photoDataMapper.get(photoUrlId);
+        photoDataMapper.delete(photoUrlId);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    public void test_commentRepository_queryUsesIndexes() throws Exception {
+        new CommentRepository(recordingJdbcTemplate).findForRestaurant(restaurantId);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    public void test_commentDataMapper_queriesUseIndexes() throws Exception {
+        CommentDataMapper commentDataMapper = new CommentDataMapper(recordingJdbcTemplate);
+
+        Comment comment = commentDataMapper.create(new NewComment("Delicious"), userId, restaurantId);
+        commentDataMapper.get(comment.getId());
+        commentDataMapper.delete(comment.getId());
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    public void test_likeDataMapper_queriesUseIndexes() throws Exception {
+        LikeDataMapper likeDataMapper = new LikeDataMapper(recordingJdbcTemplate);
+
+        likeDataMapper.getLikesByUser(userId);
+        likeDataMapper.findLikedRestaurantIds(userId, asList(restaurantId, restaurantId + 1));
+        likeDataMapper.findForRestaurant(restaurantId);
+        likeDataMapper.delete(userId, restaurantId);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    public void test_userDataMapper_queriesUseIndexes() throws Exception {
+        UserDataMapper userDataMapper = new UserDataMapper(recordingJdbcTemplate);
+
+        userDataMapper.get(new LogonCredentials("User1@Pivotal.io", "password"));
+        userDataMapper.get(userId);
+        userDataMapper.findForUserIds(asList(userId, userId + 1));
+        userDataMapper.findForRestaurantId(restaurantId);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    public void test_referenceDataMappers_queriesUseIndexes() throws Exception {
+        new CuisineDataMapper(recordingJdbcTemplate).findForRestaurant(restaurantId);
+        new PriceRangeDataMapper(recordingJdbcTemplate).findForRestaurant(restaurantId);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    public void test_sessionDataMapper_queriesUseIndexes() throws Exception {
+        SessionDataMapper sessionDataMapper = new SessionDataMapper(recordingJdbcTemplate, new SessionTokenCache(60, 100));
+
+        sessionDataMapper.validateToken("token-" + userId);
+        sessionDataMapper.delete("token-" + (userId + 1));
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    public void test_revokedTokenDataMapper_queriesUseIndexes() throws Exception {
+        RevokedTokenDataMapper revokedTokenDataMapper = new RevokedTokenDataMapper(recordingJdbcTemplate);
+
+        revokedTokenDataMapper.findUnexpired(Instant.now());
+        revokedTokenDataMapper.deleteExpired(Instant.now().minus(1, ChronoUnit.HOURS));
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    public void test_s3DeletionDataMapper_queriesUseIndexes() throws Exception {
+        S3DeletionDataMapper s3DeletionDataMapper = new S3DeletionDataMapper(recordingJdbcTemplate);
+
+        Instant now = Instant.now();
+        s3DeletionDataMapper.claim(now, now.plus(5, ChronoUnit.MINUTES), 10, 100);
+        long id = jdbcTemplate.queryForObject("SELECT max(id) FROM s3_deletion", Long.class);
+        s3DeletionDataMapper.reschedule(id, now, "Access Denied");
+        s3DeletionDataMapper.delete(singletonList(id));
+
+        assertNoSequentialScans();
+    }
+
+    private void assertNoSequentialScans() throws SQLException {
+        List<String> plans = dataSource.explainAll();
+        assertThat(plans.isEmpty(), is(false));
+
+        for (String plan : plans) {
+            if (isAllowedToScan(plan.substring(0, plan.indexOf('\n')))) {
+                continue;
+            }
+
+            Matcher matcher = SEQ_SCAN.matcher(plan);
+            while (matcher.find()) {
+                if (!REFERENCE_TABLES.contains(matcher.group(1))) {
+                    fail("Sequential scan on " + matcher.group(1) + ":\n" + plan);
+                }
+            }
+        }
+    }
+
+    private static boolean isAllowedToScan(String sql) {
+        return ALLOWED_SEQ_SCANS.stream().anyMatch(pattern -> pattern.matcher(sql).find());
+    }
+
+    private static NewRestaurant newRestaurant() {
+        return new NewRestaurant(
+                "Restaurant", "Address", "Station", "place-id", 35.6, 139.7,
+                "Notes", cuisineId, priceRangeId, emptyList()
+        );
+    }
+}
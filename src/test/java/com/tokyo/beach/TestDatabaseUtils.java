@@ -101,14 +101,17 @@ public class TestDatabaseUtils {
     ) {
         SimpleJdbcInsert insert = new SimpleJdbcInsert(jdbcTemplate)
                 .withTableName("restaurant")
-                .usingColumns("name", "address", "notes",
+                .usingColumns("name", "address", "nearest_station", "notes", "latitude", "longitude",
                         "cuisine_id", "created_by_user_id", "price_range_id")
                 .usingGeneratedKeyColumns("id");
 
         Map<String, Object> params = new HashMap<>();
         params.put("name", newRestaurant.getName());
         params.put("address", newRestaurant.getAddress());
+        params.put("nearest_station", newRestaurant.getNearestStation());
         params.put("notes", newRestaurant.getNotes());
+        params.put("latitude", newRestaurant.getLatitude());
+        params.put("longitude", newRestaurant.getLongitude());
         params.put("cuisine_id", newRestaurant.getCuisineId());
         params.put("created_by_user_id", userId);
         params.put("price_range_id", newRestaurant.getPriceRangeId());
@@ -202,6 +205,6 @@ public class TestDatabaseUtils {
     }
 
     public static void truncateAllTables(JdbcTemplate jdbcTemplate) {
-        jdbcTemplate.update("TRUNCATE TABLE photo_url, restaurant, cuisine, session, users, comment, likes, price_range");
+        jdbcTemplate.update("TRUNCATE TABLE photo_url, restaurant_search, restaurant, cuisine, session, users, comment, likes, price_range, revoked_token, s3_deletion");
     }
 }
@@ -0,0 +1,94 @@
+package com.tokyo.beach.cache;
+
+import com.tokyo.beach.restaurants.cache.ExpiringCache;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class ExpiringCacheTest {
+    private MutableClock clock;
+    private ExpiringCache<String, Long> cache;
+
+    @Before
+    public void setUp() {
+        clock = new MutableClock();
+        cache = new ExpiringCache<>(1000, 2, clock);
+    }
+
+    @Test
+    public void test_get_returnsValueBeforeExpiry() {
+        cache.put("token", 1L);
+        clock.advance(999);
+
+        assertThat(cache.get("token").get(), is(1L));
+        assertThat(cache.getHitCount(), is(1L));
+    }
+
+    @Test
+    public void test_get_returnsEmptyAfterExpiry() {
+        cache.put("token", 1L);
+        clock.advance(1000);
+
+        assertFalse(cache.get("token").isPresent());
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void test_put_evictsLeastRecentlyUsedEntryWhenFull() {
+        cache.put("first", 1L);
+        cache.put("second", 2L);
+        cache.get("first");
+
+        cache.put("third", 3L);
+
+        assertTrue(cache.get("first").isPresent());
+        assertFalse(cache.get("second").isPresent());
+        assertTrue(cache.get("third").isPresent());
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void test_invalidate_removesEntry() {
+        cache.put("token", 1L);
+
+        cache.invalidate("token");
+
+        assertFalse(cache.get("token").isPresent());
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = 0;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
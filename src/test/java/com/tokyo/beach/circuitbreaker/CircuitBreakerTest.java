@@ -0,0 +1,163 @@
+package com.tokyo.beach.circuitbreaker;
+
+import com.tokyo.beach.restaurants.circuitbreaker.CircuitBreaker;
+import com.tokyo.beach.restaurants.circuitbreaker.CircuitBreaker.Permission;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static com.tokyo.beach.restaurants.circuitbreaker.CircuitBreaker.State.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+    private static final Duration FAST = Duration.ofMillis(10);
+    private static final Duration SLOW = Duration.ofSeconds(3);
+
+    private MutableClock clock;
+    private CircuitBreaker circuitBreaker;
+
+    @Before
+    public void setUp() {
+        clock = new MutableClock(Instant.parse("2016-05-01T00:00:00Z"));
+        circuitBreaker = new CircuitBreaker(4, 4, 50, Duration.ofSeconds(2), 75, Duration.ofSeconds(30), clock);
+    }
+
+    @Test
+    public void test_staysClosedUntilMinimumCallsAreRecorded() {
+        callFails(FAST);
+        callFails(FAST);
+        callFails(FAST);
+
+        assertThat(circuitBreaker.getState(), is(CLOSED));
+        assertTrue(circuitBreaker.tryAcquirePermission().isPresent());
+    }
+
+    @Test
+    public void test_opensWhenFailureRateReachesThreshold() {
+        callSucceeds(FAST);
+        callSucceeds(FAST);
+        callFails(FAST);
+        callFails(FAST);
+
+        assertThat(circuitBreaker.getState(), is(OPEN));
+        assertFalse(circuitBreaker.tryAcquirePermission().isPresent());
+    }
+
+    @Test
+    public void test_opensWhenSlowCallRateReachesThreshold() {
+        callSucceeds(FAST);
+        callSucceeds(SLOW);
+        callSucceeds(SLOW);
+        assertThat(circuitBreaker.getState(), is(CLOSED));
+
+        callSucceeds(SLOW);
+
+        assertThat(circuitBreaker.getState(), is(OPEN));
+    }
+
+    @Test
+    public void test_onlyCountsTheLastWindowOfCalls() {
+        callFails(FAST);
+        for (int i = 0; i < 4; i++) {
+            callSucceeds(FAST);
+        }
+        callFails(FAST);
+
+        assertThat(circuitBreaker.getState(), is(CLOSED));
+    }
+
+    @Test
+    public void test_allowsOneProbeAfterOpenDuration_andClosesWhenItSucceeds() {
+        tripOpen();
+
+        clock.advance(Duration.ofSeconds(30));
+
+        Optional<Permission> probe = circuitBreaker.tryAcquirePermission();
+        assertTrue(probe.isPresent());
+        assertThat(circuitBreaker.getState(), is(HALF_OPEN));
+        assertFalse(circuitBreaker.tryAcquirePermission().isPresent());
+
+        circuitBreaker.onSuccess(probe.get(), FAST);
+
+        assertThat(circuitBreaker.getState(), is(CLOSED));
+        assertTrue(circuitBreaker.tryAcquirePermission().isPresent());
+    }
+
+    @Test
+    public void test_reopensWhenProbeIsSlow() {
+        tripOpen();
+        clock.advance(Duration.ofSeconds(30));
+
+        callSucceeds(SLOW);
+
+        assertThat(circuitBreaker.getState(), is(OPEN));
+        assertFalse(circuitBreaker.tryAcquirePermission().isPresent());
+    }
+
+    @Test
+    public void test_ignoresCallsAdmittedBeforeTheBreakerChangedState() {
+        Permission admittedWhileClosed = circuitBreaker.tryAcquirePermission().get();
+        tripOpen();
+        clock.advance(Duration.ofSeconds(30));
+        Permission probe = circuitBreaker.tryAcquirePermission().get();
+
+        circuitBreaker.onSuccess(admittedWhileClosed, FAST);
+
+        assertThat(circuitBreaker.getState(), is(HALF_OPEN));
+        assertFalse(circuitBreaker.tryAcquirePermission().isPresent());
+
+        circuitBreaker.onError(probe, FAST);
+
+        assertThat(circuitBreaker.getState(), is(OPEN));
+    }
+
+    private void tripOpen() {
+        for (int i = 0; i < 4; i++) {
+            callFails(FAST);
+        }
+        assertThat(circuitBreaker.getState(), is(OPEN));
+    }
+
+    private void callSucceeds(Duration elapsed) {
+        circuitBreaker.onSuccess(circuitBreaker.tryAcquirePermission().get(), elapsed);
+    }
+
+    private void callFails(Duration elapsed) {
+        circuitBreaker.onError(circuitBreaker.tryAcquirePermission().get(), elapsed);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.tokyo.beach.restaurants.cuisine.Cuisine;
 import com.tokyo.beach.restaurants.cuisine.CuisineController;
 import com.tokyo.beach.restaurants.cuisine.CuisineDataMapper;
 import com.tokyo.beach.restaurants.cuisine.NewCuisine;
+import com.tokyo.beach.restaurants.pricerange.PriceRangeDataMapper;
+import com.tokyo.beach.restaurants.referencedata.ReferenceDataRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.test.web.servlet.MockMvc;
@@ -12,8 +14,8 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
-import java.util.Optional;
 
+import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -25,13 +27,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 public class CuisineControllerTest {
     CuisineDataMapper cuisineDataMapper;
+    ReferenceDataRegistry referenceDataRegistry;
     CuisineController cuisineController;
     MockMvc mockMvc;
 
     @Before
     public void setup() {
         cuisineDataMapper = mock(CuisineDataMapper.class);
-        cuisineController = new CuisineController(cuisineDataMapper);
+        referenceDataRegistry = new ReferenceDataRegistry(cuisineDataMapper, mock(PriceRangeDataMapper.class));
+        cuisineController = new CuisineController(cuisineDataMapper, referenceDataRegistry);
         mockMvc = MockMvcBuilders.standaloneSetup(cuisineController).build();
     }
 
@@ -57,8 +61,8 @@ public class CuisineControllerTest {
 
     @Test
     public void testGetCuisine() throws Exception {
-        when(cuisineDataMapper.getCuisine(1)).thenReturn(
-                Optional.of(
+        when(cuisineDataMapper.getAll()).thenReturn(
+                singletonList(
                         new Cuisine(
                                 1,
                                 "Japanese"
@@ -89,4 +93,17 @@ public class CuisineControllerTest {
 
         result.andExpect(MockMvcResultMatchers.status().isCreated());
     }
+
+    @Test
+    public void testCreateACuisine_addsCuisineToRegistry() throws Exception {
+        NewCuisine newCuisine = new NewCuisine("Japanese");
+        when(cuisineDataMapper.createCuisine(newCuisine)).thenReturn(new Cuisine(1, "Japanese"));
+
+        mockMvc.perform(post("/cuisines")
+                .contentType(APPLICATION_JSON_UTF8_VALUE)
+                .content("{\"name\":\"Japanese\"}"));
+
+        mockMvc.perform(get("/cuisines"))
+                .andExpect(jsonPath("$[0].name", equalTo("Japanese")));
+    }
 }
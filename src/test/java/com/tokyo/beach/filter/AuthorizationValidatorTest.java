@@ -2,6 +2,7 @@ package com.tokyo.beach.filter;
 
 import com.tokyo.beach.restaurants.filter.AuthorizationValidator;
 import com.tokyo.beach.restaurants.session.SessionDataMapper;
+import com.tokyo.beach.restaurants.session.SignedTokenService;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -18,16 +19,19 @@ import static org.mockito.Mockito.*;
 
 public class AuthorizationValidatorTest {
     private SessionDataMapper sessionDataMapper;
+    private SignedTokenService signedTokenService;
     private HttpServletRequest servletRequest;
     private AuthorizationValidator authorizationValidator;
 
     @Before
     public void setUp() throws Exception {
         this.sessionDataMapper = mock(SessionDataMapper.class);
+        this.signedTokenService = mock(SignedTokenService.class);
         this.servletRequest = mock(HttpServletRequest.class);
 
         this.authorizationValidator = new AuthorizationValidator(
-                sessionDataMapper
+                sessionDataMapper,
+                signedTokenService
         );
     }
 
@@ -137,4 +141,22 @@ public class AuthorizationValidatorTest {
         verify(sessionDataMapper).validateToken(validatedTokenArgument.capture());
         assertEquals("ABCDEFG", validatedTokenArgument.getValue());
     }
+
+    @Test
+    public void test_signedTokens_areValidatedWithoutSessionLookup() throws Exception {
+        when(servletRequest.getServletPath()).thenReturn("/");
+        when(servletRequest.getMethod()).thenReturn("GET");
+        when(servletRequest.getHeader("Authorization")).thenReturn("Bearer v1.payload.signature");
+        when(signedTokenService.isSignedToken("v1.payload.signature")).thenReturn(true);
+        when(signedTokenService.validateToken("v1.payload.signature"))
+                .thenReturn(Optional.of(12L));
+
+
+        boolean requestWasAuthorized = authorizationValidator.authorizeRequest(servletRequest);
+
+
+        assertTrue(requestWasAuthorized);
+        verify(servletRequest).setAttribute("userId", 12L);
+        verify(sessionDataMapper, never()).validateToken(anyString());
+    }
 }
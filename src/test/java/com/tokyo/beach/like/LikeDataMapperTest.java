@@ -16,10 +16,13 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 import java.util.List;
+import java.util.Set;
 
 import static com.tokyo.beach.TestDatabaseUtils.*;
 import static com.tokyo.beach.restaurants.like.LikeRowMapper.likeRowMapper;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -164,45 +167,66 @@ public class LikeDataMapperTest {
     }
 
     @Test
-    public void test_findForRestaurants_returnsLikesList() throws Exception {
-        Restaurant restaurant1 = new RestaurantFixture()
+    public void test_findLikedRestaurantIds_returnsOnlyRestaurantsLikedByUser() throws Exception {
+        User user = new UserFixture().withEmail("mail1").persist(jdbcTemplate);
+        User otherUser = new UserFixture().withEmail("mail2").persist(jdbcTemplate);
+        Restaurant liked = new RestaurantFixture()
                 .withName("restaurant_name1")
-                .withUser(new UserFixture().withEmail("mail1").persist(jdbcTemplate))
+                .withUser(user)
                 .persist(jdbcTemplate);
-        Restaurant restaurant2 = new RestaurantFixture()
+        Restaurant likedByOtherUser = new RestaurantFixture()
                 .withName("restaurant_name2")
-                .withUser(new UserFixture().withEmail("mail2").persist(jdbcTemplate))
+                .withUser(user)
                 .persist(jdbcTemplate);
-        Like like1 = new LikeFixture()
-                .withRestaurantId(restaurant1.getId())
-                .withUserId(restaurant1.getCreatedByUserId())
+        new LikeFixture()
+                .withRestaurantId(liked.getId())
+                .withUserId(user.getId())
                 .persist(jdbcTemplate);
-        Like like2 = new LikeFixture()
-                .withRestaurantId(restaurant2.getId())
-                .withUserId(new UserFixture().withEmail("mail3").persist(jdbcTemplate).getId())
+        new LikeFixture()
+                .withRestaurantId(likedByOtherUser.getId())
+                .withUserId(otherUser.getId())
                 .persist(jdbcTemplate);
 
 
-        List<Like> likes = new LikeDataMapper(jdbcTemplate)
-                .findForRestaurants(asList(restaurant1, restaurant2));
+        Set<Long> likedRestaurantIds = new LikeDataMapper(jdbcTemplate)
+                .findLikedRestaurantIds(user.getId(), asList(liked.getId(), likedByOtherUser.getId()));
 
 
-        assertTrue(likes.contains(like1));
-        assertTrue(likes.contains(like2));
+        assertThat(likedRestaurantIds, is(singleton(liked.getId())));
     }
 
     @Test
-    public void test_findForRestaurants_returnsEmptyList() throws Exception {
-        Restaurant restaurant1 = new RestaurantFixture()
-                .withName("restaurant_name1")
-                .withUser(new UserFixture().withEmail("mail1").persist(jdbcTemplate))
+    public void test_findLikedRestaurantIds_returnsEmptySetForNoRestaurants() throws Exception {
+        Set<Long> likedRestaurantIds = new LikeDataMapper(jdbcTemplate)
+                .findLikedRestaurantIds(1L, emptyList());
+
+        assertTrue(likedRestaurantIds.isEmpty());
+    }
+
+    @Test
+    public void test_createAndDelete_maintainRestaurantLikeCount() throws Exception {
+        User user = new UserFixture().withEmail("mail1").persist(jdbcTemplate);
+        User otherUser = new UserFixture().withEmail("mail2").persist(jdbcTemplate);
+        Restaurant restaurant = new RestaurantFixture()
+                .withUser(user)
                 .persist(jdbcTemplate);
+        LikeDataMapper likeDataMapper = new LikeDataMapper(jdbcTemplate);
 
 
-        List<Like> likes = new LikeDataMapper(jdbcTemplate)
-                .findForRestaurants(asList(restaurant1));
+        likeDataMapper.create(user.getId(), restaurant.getId());
+        likeDataMapper.create(otherUser.getId(), restaurant.getId());
+        likeDataMapper.create(otherUser.getId(), restaurant.getId());
+        assertThat(likeCount(restaurant), is(2L));
 
+        likeDataMapper.delete(user.getId(), restaurant.getId());
+        assertThat(likeCount(restaurant), is(1L));
+    }
 
-        assertTrue(likes.isEmpty());
+    private long likeCount(Restaurant restaurant) {
+        return jdbcTemplate.queryForObject(
+                "SELECT like_count FROM restaurant WHERE id = ?",
+                Long.class,
+                restaurant.getId()
+        );
     }
 }
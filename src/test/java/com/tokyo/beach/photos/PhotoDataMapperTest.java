@@ -1,5 +1,6 @@
 package com.tokyo.beach.photos;
 
+import com.tokyo.beach.StatementCountingDataSource;
 import com.tokyo.beach.restaurant.RestaurantFixture;
 import com.tokyo.beach.restaurants.photos.NewPhotoUrl;
 import com.tokyo.beach.restaurants.photos.PhotoDataMapper;
@@ -18,6 +19,7 @@ import java.util.Optional;
 import static com.tokyo.beach.TestDatabaseUtils.*;
 import static com.tokyo.beach.restaurants.photos.PhotoUrlRowMapper.photoUrlRowMapper;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -73,7 +75,7 @@ public class PhotoDataMapperTest {
         );
 
         List<PhotoUrl> photoUrls = jdbcTemplate.query(
-                "SELECT * FROM photo_url where restaurant_id = ?",
+                "SELECT * FROM photo_url where restaurant_id = ? ORDER BY id",
                 photoUrlRowMapper,
                 restaurant.getId()
         );
@@ -85,6 +87,63 @@ public class PhotoDataMapperTest {
         assertThat(photoUrls.get(1).getRestaurantId(), is(restaurant.getId()));
     }
 
+    @Test
+    public void test_createPhotosForRestaurant_insertsAllPhotosInOneStatement() throws Exception {
+        StatementCountingDataSource dataSource = new StatementCountingDataSource(buildDataSource());
+        photoDataMapper = new PhotoDataMapper(new JdbcTemplate(dataSource));
+
+        List<PhotoUrl> photoUrls = photoDataMapper.createPhotosForRestaurant(
+                restaurant.getId(),
+                asList(
+                        new NewPhotoUrl("http://first-url"),
+                        new NewPhotoUrl("http://second-url"),
+                        new NewPhotoUrl("http://third-url")
+                )
+        );
+
+        assertThat(dataSource.getStatementCount(), is(1));
+        assertThat(photoUrls, hasSize(3));
+        assertThat(photoUrls.get(0).getUrl(), is("http://first-url"));
+        assertThat(photoUrls.get(1).getUrl(), is("http://second-url"));
+        assertThat(photoUrls.get(2).getUrl(), is("http://third-url"));
+        assertThat(photoUrls.get(2).getRestaurantId(), is(restaurant.getId()));
+        assertThat(photoUrls.get(0).getId(), lessThan(photoUrls.get(1).getId()));
+    }
+
+    @Test
+    public void test_createPhotosForRestaurant_skipsUrlsTheRestaurantAlreadyHas() throws Exception {
+        PhotoUrl existing = new PhotoUrlFixture()
+                .withUrl("http://existing-url")
+                .withRestaurantId(restaurant.getId())
+                .persist(jdbcTemplate);
+
+        List<PhotoUrl> photoUrls = photoDataMapper.createPhotosForRestaurant(
+                restaurant.getId(),
+                asList(
+                        new NewPhotoUrl("http://existing-url"),
+                        new NewPhotoUrl("http://new-url"),
+                        new NewPhotoUrl("http://new-url")
+                )
+        );
+
+        assertThat(photoUrls, hasSize(1));
+        assertThat(photoUrls.get(0).getUrl(), is("http://new-url"));
+        List<PhotoUrl> allPhotos = photoDataMapper.findForRestaurant(restaurant.getId());
+        assertThat(allPhotos, hasSize(2));
+        assertThat(allPhotos.get(0), is(existing));
+    }
+
+    @Test
+    public void test_createPhotosForRestaurant_skipsTheDatabaseForNoPhotos() throws Exception {
+        StatementCountingDataSource dataSource = new StatementCountingDataSource(buildDataSource());
+        photoDataMapper = new PhotoDataMapper(new JdbcTemplate(dataSource));
+
+        List<PhotoUrl> photoUrls = photoDataMapper.createPhotosForRestaurant(restaurant.getId(), emptyList());
+
+        assertThat(photoUrls, hasSize(0));
+        assertThat(dataSource.getStatementCount(), is(0));
+    }
+
     @Test
     public void test_findForRestaurant_returnsPhotoUrlList() throws Exception {
         PhotoUrl photoUrl = new PhotoUrlFixture()
@@ -3,6 +3,8 @@ package com.tokyo.beach.pricerange;
 import com.tokyo.beach.restaurants.pricerange.PriceRange;
 import com.tokyo.beach.restaurants.pricerange.PriceRangeController;
 import com.tokyo.beach.restaurants.pricerange.PriceRangeDataMapper;
+import com.tokyo.beach.restaurants.referencedata.ReferenceDataRegistry;
+import com.tokyo.beach.restaurants.cuisine.CuisineDataMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.test.web.servlet.MockMvc;
@@ -33,7 +35,9 @@ public class PriceRangeControllerTest {
                 )
         );
 
-        priceRangeController = new PriceRangeController(priceRangeDataMapper);
+        priceRangeController = new PriceRangeController(
+                new ReferenceDataRegistry(mock(CuisineDataMapper.class), priceRangeDataMapper)
+        );
         mockMvc = MockMvcBuilders.standaloneSetup(priceRangeController)
                 .build();
     }
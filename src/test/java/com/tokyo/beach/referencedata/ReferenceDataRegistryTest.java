@@ -0,0 +1,93 @@
+package com.tokyo.beach.referencedata;
+
+import com.tokyo.beach.restaurants.cuisine.Cuisine;
+import com.tokyo.beach.restaurants.cuisine.CuisineDataMapper;
+import com.tokyo.beach.restaurants.pricerange.PriceRange;
+import com.tokyo.beach.restaurants.pricerange.PriceRangeDataMapper;
+import com.tokyo.beach.restaurants.referencedata.ReferenceDataRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ReferenceDataRegistryTest {
+    private CuisineDataMapper cuisineDataMapper;
+    private PriceRangeDataMapper priceRangeDataMapper;
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    @Before
+    public void setUp() {
+        cuisineDataMapper = mock(CuisineDataMapper.class);
+        priceRangeDataMapper = mock(PriceRangeDataMapper.class);
+        when(cuisineDataMapper.getAll()).thenReturn(asList(new Cuisine(1, "Japanese"), new Cuisine(2, "Spanish")));
+        when(priceRangeDataMapper.getAll()).thenReturn(singletonList(new PriceRange(1, "¥0-999")));
+
+        referenceDataRegistry = new ReferenceDataRegistry(cuisineDataMapper, priceRangeDataMapper);
+    }
+
+    @Test
+    public void test_lookups_loadOnceAndServeFromMemory() {
+        assertThat(referenceDataRegistry.getCuisine(2).get(), is(new Cuisine(2, "Spanish")));
+        assertThat(referenceDataRegistry.getPriceRange(1).get(), is(new PriceRange(1, "¥0-999")));
+        assertThat(referenceDataRegistry.getCuisines().size(), is(2));
+
+        verify(cuisineDataMapper, times(1)).getAll();
+        verify(priceRangeDataMapper, times(1)).getAll();
+    }
+
+    @Test
+    public void test_lookupMiss_reloadsBeforeReportingAbsent() {
+        referenceDataRegistry.getCuisines();
+        when(cuisineDataMapper.getAll()).thenReturn(asList(new Cuisine(1, "Japanese"), new Cuisine(5, "Thai")));
+        when(priceRangeDataMapper.getAll()).thenReturn(asList(new PriceRange(1, "¥0-999"), new PriceRange(2, "¥1000+")));
+
+        assertThat(referenceDataRegistry.getCuisine(5).get(), is(new Cuisine(5, "Thai")));
+        assertThat(referenceDataRegistry.getPriceRange(2).get(), is(new PriceRange(2, "¥1000+")));
+        assertFalse(referenceDataRegistry.getCuisine(99).isPresent());
+
+        verify(cuisineDataMapper, times(3)).getAll();
+    }
+
+    @Test
+    public void test_addCuisine_makesCuisineVisibleWithoutReload() {
+        referenceDataRegistry.getCuisines();
+
+        referenceDataRegistry.addCuisine(new Cuisine(3, "Thai"));
+
+        assertThat(referenceDataRegistry.getCuisine(3).get(), is(new Cuisine(3, "Thai")));
+        assertThat(referenceDataRegistry.getCuisines().size(), is(3));
+        verify(cuisineDataMapper, times(1)).getAll();
+    }
+
+    @Test
+    public void test_addCuisine_skipsCuisineAlreadyLoaded() {
+        referenceDataRegistry.getCuisines();
+
+        referenceDataRegistry.addCuisine(new Cuisine(2, "Spanish"));
+
+        assertThat(referenceDataRegistry.getCuisines().size(), is(2));
+    }
+
+    @Test
+    public void test_warm_loadsBeforeFirstUse() {
+        referenceDataRegistry.warm();
+
+        verify(cuisineDataMapper, times(1)).getAll();
+        verify(priceRangeDataMapper, times(1)).getAll();
+    }
+
+    @Test
+    public void test_refresh_reloadsFromDatabase() {
+        referenceDataRegistry.getCuisines();
+        when(cuisineDataMapper.getAll()).thenReturn(singletonList(new Cuisine(4, "Korean")));
+
+        referenceDataRegistry.refresh();
+
+        assertThat(referenceDataRegistry.getCuisines(), is(singletonList(new Cuisine(4, "Korean"))));
+    }
+}
@@ -0,0 +1,25 @@
+package com.tokyo.beach.restaurant;
+
+import com.tokyo.beach.restaurants.restaurant.RestaurantCursor;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class RestaurantCursorTest {
+    @Test
+    public void test_decode_returnsEncodedCursor() {
+        RestaurantCursor cursor = new RestaurantCursor(Instant.parse("2016-06-01T12:34:56.123456Z"), 42L);
+
+        assertEquals(cursor, RestaurantCursor.decode(cursor.encode()).get());
+    }
+
+    @Test
+    public void test_decode_returnsEmptyForMalformedCursor() {
+        assertFalse(RestaurantCursor.decode("not-a-cursor").isPresent());
+        assertFalse(RestaurantCursor.decode("").isPresent());
+        assertFalse(RestaurantCursor.decode("%%%").isPresent());
+    }
+}
@@ -6,13 +6,21 @@ import com.tokyo.beach.like.LikeFixture;
 import com.tokyo.beach.photos.PhotoUrlFixture;
 import com.tokyo.beach.pricerange.PriceRangeFixture;
 import com.tokyo.beach.restaurants.comment.Comment;
+import com.tokyo.beach.restaurants.comment.CommentDataMapper;
+import com.tokyo.beach.restaurants.comment.NewComment;
 import com.tokyo.beach.restaurants.cuisine.Cuisine;
 import com.tokyo.beach.restaurants.like.Like;
+import com.tokyo.beach.restaurants.like.LikeDataMapper;
+import com.tokyo.beach.restaurants.photos.NewPhotoUrl;
+import com.tokyo.beach.restaurants.photos.PhotoDataMapper;
 import com.tokyo.beach.restaurants.photos.PhotoUrl;
 import com.tokyo.beach.restaurants.pricerange.PriceRange;
 import com.tokyo.beach.restaurants.restaurant.NewRestaurant;
 import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import com.tokyo.beach.restaurants.restaurant.RestaurantChangeListener;
+import com.tokyo.beach.restaurants.restaurant.RestaurantCursor;
 import com.tokyo.beach.restaurants.restaurant.RestaurantDataMapper;
+import com.tokyo.beach.restaurants.restaurant.RestaurantFilter;
 import com.tokyo.beach.restaurants.user.User;
 import com.tokyo.beach.user.UserFixture;
 import org.junit.After;
@@ -31,9 +39,14 @@ import java.util.Optional;
 
 import static com.tokyo.beach.TestDatabaseUtils.*;
 import static com.tokyo.beach.restaurants.restaurant.RestaurantRowMapper.restaurantRowMapper;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class RestaurantDataMapperTest {
     private RestaurantDataMapper restaurantDataMapper;
@@ -72,6 +85,135 @@ public class RestaurantDataMapperTest {
         assertThat(restaurants.get(1).getId(), is(restaurant1.getId()));
     }
 
+    @Test
+    public void test_getPage_returnsNewestRestaurantsUpToLimit() {
+        Restaurant restaurant1 = new RestaurantFixture()
+                .withUser(user)
+                .persist(jdbcTemplate);
+        Restaurant restaurant2 = new RestaurantFixture()
+                .withUser(user)
+                .persist(jdbcTemplate);
+        Restaurant restaurant3 = new RestaurantFixture()
+                .withUser(user)
+                .persist(jdbcTemplate);
+
+        List<Restaurant> restaurants = restaurantDataMapper.getPage(RestaurantFilter.NONE, Optional.empty(), 2);
+
+        assertEquals(2, restaurants.size());
+        assertThat(restaurants.get(0).getId(), is(restaurant3.getId()));
+        assertThat(restaurants.get(1).getId(), is(restaurant2.getId()));
+    }
+
+    @Test
+    public void test_getPage_returnsRestaurantsAfterCursor_whenCreatedAtIsShared() {
+        Restaurant restaurant1 = new RestaurantFixture()
+                .withUser(user)
+                .persist(jdbcTemplate);
+        Restaurant restaurant2 = new RestaurantFixture()
+                .withUser(user)
+                .persist(jdbcTemplate);
+        Restaurant restaurant3 = new RestaurantFixture()
+                .withUser(user)
+                .persist(jdbcTemplate);
+        jdbcTemplate.update(
+                "UPDATE restaurant SET created_at = ? WHERE id IN (?, ?, ?)",
+                Timestamp.from(Instant.parse("2016-06-01T12:00:00Z")),
+                restaurant1.getId(),
+                restaurant2.getId(),
+                restaurant3.getId()
+        );
+        Restaurant firstOnPage = restaurantDataMapper.getPage(RestaurantFilter.NONE, Optional.empty(), 1).get(0);
+        assertThat(firstOnPage.getId(), is(restaurant3.getId()));
+
+        List<Restaurant> restaurants = restaurantDataMapper.getPage(
+                RestaurantFilter.NONE,
+                Optional.of(RestaurantCursor.after(firstOnPage)),
+                10
+        );
+
+        assertEquals(2, restaurants.size());
+        assertThat(restaurants.get(0).getId(), is(restaurant2.getId()));
+        assertThat(restaurants.get(1).getId(), is(restaurant1.getId()));
+    }
+
+    @Test
+    public void test_getPage_appliesEveryFilterThatIsSet() {
+        User otherUser = new UserFixture()
+                .withEmail("hanako@pivotal.io")
+                .persist(jdbcTemplate);
+        Cuisine ramen = new CuisineFixture()
+                .withName("Ramen")
+                .persist(jdbcTemplate);
+        PriceRange cheap = new PriceRangeFixture()
+                .withRange("~999")
+                .persist(jdbcTemplate);
+        Restaurant afuri = new RestaurantFixture()
+                .withName("Afuri 100%")
+                .withCuisine(ramen)
+                .withPriceRange(cheap)
+                .withUser(user)
+                .persist(jdbcTemplate);
+        Restaurant ichiran = new RestaurantFixture()
+                .withName("Ichiran")
+                .withCuisine(ramen)
+                .withUser(otherUser)
+                .persist(jdbcTemplate);
+        new RestaurantFixture()
+                .withName("Afuri Sushi")
+                .withUser(user)
+                .persist(jdbcTemplate);
+
+        List<Restaurant> ramenRestaurants = restaurantDataMapper.getPage(
+                new RestaurantFilter(ramen.getId(), null, null, null), Optional.empty(), 10);
+        List<Restaurant> cheapRamenByUser = restaurantDataMapper.getPage(
+                new RestaurantFilter(ramen.getId(), cheap.getId(), user.getId(), null), Optional.empty(), 10);
+        List<Restaurant> byOtherUser = restaurantDataMapper.getPage(
+                new RestaurantFilter(null, null, otherUser.getId(), null), Optional.empty(), 10);
+        List<Restaurant> byName = restaurantDataMapper.getPage(
+                new RestaurantFilter(null, null, null, "afuri 100%"), Optional.empty(), 10);
+        List<Restaurant> byWildcardName = restaurantDataMapper.getPage(
+                new RestaurantFilter(null, null, null, "%"), Optional.empty(), 10);
+
+        assertThat(ramenRestaurants.size(), is(2));
+        assertThat(ramenRestaurants.get(0).getId(), is(ichiran.getId()));
+        assertThat(ramenRestaurants.get(1).getId(), is(afuri.getId()));
+        assertThat(cheapRamenByUser.size(), is(1));
+        assertThat(cheapRamenByUser.get(0).getId(), is(afuri.getId()));
+        assertThat(byOtherUser.size(), is(1));
+        assertThat(byOtherUser.get(0).getId(), is(ichiran.getId()));
+        assertThat(byName.size(), is(1));
+        assertThat(byName.get(0).getId(), is(afuri.getId()));
+        assertThat(byWildcardName.size(), is(1));
+    }
+
+    @Test
+    public void test_getPage_combinesFilterWithCursor() {
+        Cuisine ramen = new CuisineFixture()
+                .withName("Ramen")
+                .persist(jdbcTemplate);
+        Restaurant older = new RestaurantFixture()
+                .withCuisine(ramen)
+                .withUser(user)
+                .persist(jdbcTemplate);
+        new RestaurantFixture()
+                .withUser(user)
+                .persist(jdbcTemplate);
+        Restaurant newer = new RestaurantFixture()
+                .withCuisine(ramen)
+                .withUser(user)
+                .persist(jdbcTemplate);
+        RestaurantFilter filter = new RestaurantFilter(ramen.getId(), null, null, null);
+
+        List<Restaurant> restaurants = restaurantDataMapper.getPage(
+                filter,
+                Optional.of(RestaurantCursor.after(newer)),
+                10
+        );
+
+        assertEquals(1, restaurants.size());
+        assertThat(restaurants.get(0).getId(), is(older.getId()));
+    }
+
     @Test
     public void testCreateRestaurant() throws Exception {
         PriceRange priceRange = new PriceRangeFixture()
@@ -192,6 +334,125 @@ public class RestaurantDataMapperTest {
 
     }
 
+    @Test
+    public void test_search_ranksNameAheadOfStationNotesAndComments() {
+        Restaurant byComment = new RestaurantFixture()
+                .withName("Ichiran")
+                .withUser(user)
+                .persist(jdbcTemplate);
+        Restaurant byNotes = new RestaurantFixture()
+                .withName("Ippudo")
+                .withNotes("Better than afuri")
+                .withUser(user)
+                .persist(jdbcTemplate);
+        Restaurant byStation = new RestaurantFixture()
+                .withName("Fuunji")
+                .withNearestStation("Afuri Station")
+                .withUser(user)
+                .persist(jdbcTemplate);
+        Restaurant byName = new RestaurantFixture()
+                .withName("Afuri")
+                .withUser(user)
+                .persist(jdbcTemplate);
+        new RestaurantFixture()
+                .withName("Sushi Dai")
+                .withUser(user)
+                .persist(jdbcTemplate);
+        new CommentFixture()
+                .withContent("reminds me of afuri")
+                .withRestaurantId(byComment.getId())
+                .withCreatedByUserId(user.getId())
+                .persist(jdbcTemplate);
+
+
+        List<Restaurant> restaurants = restaurantDataMapper.search("AFURI", 10);
+
+
+        assertThat(
+                restaurants.stream().map(Restaurant::getId).collect(toList()),
+                is(asList(byName.getId(), byStation.getId(), byNotes.getId(), byComment.getId()))
+        );
+        assertThat(restaurantDataMapper.search("afuri", 1).size(), is(1));
+    }
+
+    @Test
+    public void test_search_followsRestaurantAndCommentWrites() {
+        CommentDataMapper commentDataMapper = new CommentDataMapper(jdbcTemplate);
+        Restaurant restaurant = restaurantDataMapper.createRestaurant(
+                new NewRestaurant("Afuri", "Ebisu", "Ebisu", null, 0, 0, "yuzu shio", 0L, 0L, emptyList()),
+                user.getId()
+        );
+        assertThat(restaurantDataMapper.search("yuzu", 10).size(), is(1));
+
+        restaurantDataMapper.updateRestaurant(
+                restaurant.getId(),
+                new NewRestaurant("Afuri", "Ebisu", "Ebisu", null, 0, 0, "tsukemen", 0L, 0L, emptyList()),
+                Optional.empty()
+        );
+        assertThat(restaurantDataMapper.search("yuzu", 10).size(), is(0));
+        assertThat(restaurantDataMapper.search("tsukemen", 10).size(), is(1));
+
+        Comment comment = commentDataMapper.create(new NewComment("great gyoza"), user.getId(), restaurant.getId());
+        assertThat(restaurantDataMapper.search("gyoza", 10).size(), is(1));
+
+        commentDataMapper.delete(comment.getId());
+        assertThat(restaurantDataMapper.search("gyoza", 10).size(), is(0));
+
+        restaurantDataMapper.delete(restaurant.getId());
+        assertThat(restaurantDataMapper.search("afuri", 10).size(), is(0));
+    }
+
+    @Test
+    public void test_revision_followsLikesPhotosAndComments() {
+        Restaurant restaurant = restaurantDataMapper.createRestaurant(
+                new NewRestaurant("Afuri", "Ebisu", "Ebisu", null, 0, 0, "", 0L, 0L, emptyList()),
+                user.getId()
+        );
+        long revision = restaurant.getRevision();
+
+        LikeDataMapper likeDataMapper = new LikeDataMapper(jdbcTemplate);
+        likeDataMapper.create(user.getId(), restaurant.getId());
+        assertThat(restaurantDataMapper.get(restaurant.getId()).get().getRevision(), is(revision + 1));
+        likeDataMapper.delete(user.getId(), restaurant.getId());
+        assertThat(restaurantDataMapper.get(restaurant.getId()).get().getRevision(), is(revision + 2));
+
+        PhotoDataMapper photoDataMapper = new PhotoDataMapper(jdbcTemplate);
+        PhotoUrl photoUrl = photoDataMapper.createPhotosForRestaurant(
+                restaurant.getId(), singletonList(new NewPhotoUrl("http://some-url"))
+        ).get(0);
+        assertThat(restaurantDataMapper.get(restaurant.getId()).get().getRevision(), is(revision + 3));
+        photoDataMapper.delete(photoUrl.getId());
+        assertThat(restaurantDataMapper.get(restaurant.getId()).get().getRevision(), is(revision + 4));
+
+        CommentDataMapper commentDataMapper = new CommentDataMapper(jdbcTemplate);
+        Comment comment = commentDataMapper.create(new NewComment("great gyoza"), user.getId(), restaurant.getId());
+        assertThat(restaurantDataMapper.get(restaurant.getId()).get().getRevision(), is(revision + 5));
+        commentDataMapper.delete(comment.getId());
+
+        Restaurant current = restaurantDataMapper.get(restaurant.getId()).get();
+        assertThat(current.getRevision(), is(revision + 6));
+        assertThat(current.getVersion(), is(restaurant.getVersion()));
+    }
+
+    @Test
+    public void test_changeListenersAreToldAboutCreateUpdateAndDelete() throws Exception {
+        RestaurantChangeListener listener = mock(RestaurantChangeListener.class);
+        restaurantDataMapper = new RestaurantDataMapper(jdbcTemplate, singletonList(listener));
+        NewRestaurant newRestaurant = new NewRestaurant(
+                "Afuri", "Roppongi", "Roppongi Station", "place-id", 1.23, 2.34, "", 0L, 0L, emptyList()
+        );
+
+
+        Restaurant created = restaurantDataMapper.createRestaurant(newRestaurant, user.getId());
+        Restaurant updated = restaurantDataMapper.updateRestaurant(created.getId(), newRestaurant, Optional.empty()).get();
+        restaurantDataMapper.delete(created.getId());
+
+
+        verify(listener).restaurantSaved(created);
+        verify(listener).restaurantSaved(updated);
+        verify(listener).restaurantDeleted(created.getId());
+    }
+
     @Test
     public void test_updateRestaurant_updatesRestaurant() throws Exception {
         Restaurant restaurant = new RestaurantFixture()
@@ -223,8 +484,9 @@ public class RestaurantDataMapperTest {
 
         Restaurant updatedRestaurant = restaurantDataMapper.updateRestaurant(
                 restaurant.getId(),
-                updatedNewRestaurant
-        );
+                updatedNewRestaurant,
+                Optional.empty()
+        ).get();
 
         Map<String, Object> map = jdbcTemplate.queryForMap(
                 "SELECT * FROM restaurant WHERE id = ?",
@@ -242,6 +504,33 @@ public class RestaurantDataMapperTest {
         assertEquals(map.get("cuisine_id"), updatedNewRestaurant.getCuisineId());
         assertEquals(map.get("price_range_id"), updatedNewRestaurant.getPriceRangeId());
         assertNotEquals(updatedRestaurant.getUpdatedDate(), restaurant.getUpdatedDate());
+        assertThat(updatedRestaurant.getVersion(), is(restaurant.getVersion() + 1));
+    }
+
+    @Test
+    public void test_updateRestaurant_withExpectedVersion_onlyUpdatesThatVersion() throws Exception {
+        Restaurant restaurant = restaurantDataMapper.createRestaurant(
+                new NewRestaurant("Afuri", "Ebisu", "Ebisu", null, 0, 0, "", 0L, 0L, emptyList()),
+                user.getId()
+        );
+        NewRestaurant firstEdit = new NewRestaurant("Ichiran", "Ebisu", "Ebisu", null, 0, 0, "", 0L, 0L, emptyList());
+        NewRestaurant secondEdit = new NewRestaurant("Fuunji", "Ebisu", "Ebisu", null, 0, 0, "", 0L, 0L, emptyList());
+
+
+        Optional<Restaurant> first = restaurantDataMapper.updateRestaurant(
+                restaurant.getId(), firstEdit, Optional.of(restaurant.getVersion())
+        );
+        Optional<Restaurant> second = restaurantDataMapper.updateRestaurant(
+                restaurant.getId(), secondEdit, Optional.of(restaurant.getVersion())
+        );
+
+
+        assertThat(first.get().getVersion(), is(restaurant.getVersion() + 1));
+        assertThat(second.isPresent(), is(false));
+        assertThat(
+                jdbcTemplate.queryForObject("SELECT name FROM restaurant WHERE id = ?", String.class, restaurant.getId()),
+                is("Ichiran")
+        );
     }
 
     @Test
@@ -0,0 +1,151 @@
+package com.tokyo.beach.restaurant;
+
+import com.tokyo.beach.comment.CommentFixture;
+import com.tokyo.beach.cuisine.CuisineFixture;
+import com.tokyo.beach.like.LikeFixture;
+import com.tokyo.beach.photos.PhotoUrlFixture;
+import com.tokyo.beach.pricerange.PriceRangeFixture;
+import com.tokyo.beach.restaurants.comment.Comment;
+import com.tokyo.beach.restaurants.comment.SerializedComment;
+import com.tokyo.beach.restaurants.cuisine.Cuisine;
+import com.tokyo.beach.restaurants.photos.PhotoUrl;
+import com.tokyo.beach.restaurants.pricerange.PriceRange;
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import com.tokyo.beach.restaurants.restaurant.RestaurantDetailDataMapper;
+import com.tokyo.beach.restaurants.restaurant.SerializedRestaurant;
+import com.tokyo.beach.restaurants.user.User;
+import com.tokyo.beach.user.UserFixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+
+import static com.tokyo.beach.TestDatabaseUtils.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class RestaurantDetailDataMapperTest {
+    private RestaurantDetailDataMapper restaurantDetailDataMapper;
+    private JdbcTemplate jdbcTemplate;
+    private User user;
+    private User commenter;
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(buildDataSource());
+        restaurantDetailDataMapper = new RestaurantDetailDataMapper(jdbcTemplate);
+        createDefaultCuisine(jdbcTemplate);
+        createDefaultPriceRange(jdbcTemplate);
+        user = new UserFixture()
+                .withEmail("joe@pivotal.io")
+                .withName("Joe")
+                .persist(jdbcTemplate);
+        commenter = new UserFixture()
+                .withEmail("hanako@pivotal.io")
+                .withName("Hanako")
+                .persist(jdbcTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        truncateAllTables(jdbcTemplate);
+    }
+
+    @Test
+    public void test_get_returnsRestaurantWithAllRelations() {
+        Cuisine cuisine = new CuisineFixture()
+                .withName("Ramen")
+                .persist(jdbcTemplate);
+        PriceRange priceRange = new PriceRangeFixture()
+                .withRange("1000~1999")
+                .persist(jdbcTemplate);
+        Restaurant restaurant = new RestaurantFixture()
+                .withName("Afuri")
+                .withCuisine(cuisine)
+                .withPriceRange(priceRange)
+                .withUser(user)
+                .persist(jdbcTemplate);
+        PhotoUrl firstPhoto = new PhotoUrlFixture()
+                .withUrl("http://photo-one")
+                .withRestaurantId(restaurant.getId())
+                .persist(jdbcTemplate);
+        PhotoUrl secondPhoto = new PhotoUrlFixture()
+                .withUrl("http://photo-two")
+                .withRestaurantId(restaurant.getId())
+                .persist(jdbcTemplate);
+        Comment olderComment = new CommentFixture()
+                .withContent("first!")
+                .withRestaurantId(restaurant.getId())
+                .withCreatedByUserId(commenter.getId())
+                .persist(jdbcTemplate);
+        Comment newerComment = new CommentFixture()
+                .withContent("so good")
+                .withRestaurantId(restaurant.getId())
+                .withCreatedByUserId(user.getId())
+                .persist(jdbcTemplate);
+        new LikeFixture()
+                .withRestaurantId(restaurant.getId())
+                .withUserId(user.getId())
+                .persist(jdbcTemplate);
+        new LikeFixture()
+                .withRestaurantId(restaurant.getId())
+                .withUserId(commenter.getId())
+                .persist(jdbcTemplate);
+
+
+        SerializedRestaurant serializedRestaurant = restaurantDetailDataMapper
+                .get(restaurant.getId(), user.getId())
+                .get();
+
+
+        assertThat(serializedRestaurant.getId(), is(restaurant.getId()));
+        assertThat(serializedRestaurant.getName(), is("Afuri"));
+        assertThat(serializedRestaurant.getCreatedDate(), is(new SerializedRestaurant(
+                restaurant, null, null, null, null, null, false, 0L).getCreatedDate()));
+        assertThat(serializedRestaurant.getCreatedByUser(), is(user));
+        assertThat(serializedRestaurant.getCuisine(), is(cuisine));
+        assertThat(serializedRestaurant.getPriceRange(), is(priceRange));
+        assertEquals(2, serializedRestaurant.getPhotoUrlList().size());
+        assertThat(serializedRestaurant.getPhotoUrlList().get(0), is(firstPhoto));
+        assertThat(serializedRestaurant.getPhotoUrlList().get(1), is(secondPhoto));
+        assertEquals(2, serializedRestaurant.getComments().size());
+        assertThat(serializedRestaurant.getComments().get(0).getId(), is(newerComment.getId()));
+        assertThat(serializedRestaurant.getComments().get(0).getUser(), is(user));
+        assertThat(serializedRestaurant.getComments().get(1).getId(), is(olderComment.getId()));
+        assertThat(serializedRestaurant.getComments().get(1).getComment(), is("first!"));
+        assertThat(serializedRestaurant.getComments().get(1).getUser(), is(commenter));
+        assertThat(
+                serializedRestaurant.getComments().get(1).getFormattedCreatedDate(),
+                is(new SerializedComment(olderComment, commenter).getFormattedCreatedDate())
+        );
+        assertTrue(serializedRestaurant.isCurrentUserLikesRestaurant());
+        assertThat(serializedRestaurant.getNumberOfLikes(), is(2L));
+    }
+
+    @Test
+    public void test_get_returnsEmptyRelations_forRestaurantWithoutPhotosCommentsOrLikes() {
+        Restaurant restaurant = new RestaurantFixture()
+                .withUser(user)
+                .persist(jdbcTemplate);
+
+
+        SerializedRestaurant serializedRestaurant = restaurantDetailDataMapper
+                .get(restaurant.getId(), commenter.getId())
+                .get();
+
+
+        assertEquals(0, serializedRestaurant.getPhotoUrlList().size());
+        assertEquals(0, serializedRestaurant.getComments().size());
+        assertFalse(serializedRestaurant.isCurrentUserLikesRestaurant());
+        assertThat(serializedRestaurant.getNumberOfLikes(), is(0L));
+    }
+
+    @Test
+    public void test_get_returnsEmptyOptionalForInvalidRestaurantId() {
+        Optional<SerializedRestaurant> maybeRestaurant = restaurantDetailDataMapper.get(999, user.getId());
+
+        assertFalse(maybeRestaurant.isPresent());
+    }
+}
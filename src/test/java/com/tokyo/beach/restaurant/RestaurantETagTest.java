@@ -0,0 +1,52 @@
+package com.tokyo.beach.restaurant;
+
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import com.tokyo.beach.restaurants.restaurant.RestaurantETag;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class RestaurantETagTest {
+    @Test
+    public void test_of_combinesVersionRevisionAndTheUser() {
+        Restaurant restaurant = new RestaurantFixture().withVersion(3).withRevision(7).build();
+
+        assertEquals("\"3.7.5\"", RestaurantETag.of(restaurant, 5L));
+        assertNotEquals(RestaurantETag.of(restaurant, 5L), RestaurantETag.of(restaurant, 6L));
+    }
+
+    @Test
+    public void test_forPage_changesWithAnyRowOrTheUser() {
+        Restaurant first = new RestaurantFixture().withId(1).withVersion(1).withRevision(1).build();
+        Restaurant second = new RestaurantFixture().withId(2).withVersion(1).withRevision(1).build();
+        Restaurant secondLiked = new RestaurantFixture().withId(2).withVersion(1).withRevision(2).build();
+
+        String eTag = RestaurantETag.forPage(1L, asList(first, second));
+
+        assertEquals(eTag, RestaurantETag.forPage(1L, asList(first, second)));
+        assertNotEquals(eTag, RestaurantETag.forPage(1L, asList(first, secondLiked)));
+        assertNotEquals(eTag, RestaurantETag.forPage(1L, asList(first)));
+        assertNotEquals(eTag, RestaurantETag.forPage(2L, asList(first, second)));
+    }
+
+    @Test
+    public void test_versionOf_readsVersionFromRestaurantTags() {
+        assertEquals(Optional.of(3L), RestaurantETag.versionOf("\"3.7.5\""));
+        assertEquals(Optional.of(3L), RestaurantETag.versionOf("\"3.7\""));
+        assertEquals(Optional.of(3L), RestaurantETag.versionOf(" \"3\" "));
+        assertFalse(RestaurantETag.versionOf("W/\"3.7\"").isPresent());
+        assertFalse(RestaurantETag.versionOf("\"abc\"").isPresent());
+        assertFalse(RestaurantETag.versionOf("3").isPresent());
+    }
+
+    @Test
+    public void test_matchesAny_comparesWeaklyAgainstEachListedTag() {
+        assertTrue(RestaurantETag.matchesAny("\"3.7\"", "\"3.7\""));
+        assertTrue(RestaurantETag.matchesAny("\"1.1\", W/\"3.7\"", "\"3.7\""));
+        assertTrue(RestaurantETag.matchesAny("*", "\"3.7\""));
+        assertFalse(RestaurantETag.matchesAny("\"3.6\"", "\"3.7\""));
+    }
+}
@@ -26,6 +26,9 @@ public class RestaurantFixture {
     private User user = new User(0, "email@email", "Not Specified");
     private ZonedDateTime createdAt = ZonedDateTime.ofInstant(Instant.EPOCH, ZoneId.of("UTC"));
     private ZonedDateTime updatedAt = ZonedDateTime.ofInstant(Instant.EPOCH, ZoneId.of("UTC"));
+    private long likeCount = 0;
+    private long version = 1;
+    private long revision = 1;
 
 
     public RestaurantFixture withId(long id) {
@@ -93,6 +96,21 @@ public class RestaurantFixture {
         return this;
     }
 
+    public RestaurantFixture withLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+        return this;
+    }
+
+    public RestaurantFixture withVersion(long version) {
+        this.version = version;
+        return this;
+    }
+
+    public RestaurantFixture withRevision(long revision) {
+        this.revision = revision;
+        return this;
+    }
+
     public Restaurant build() {
         return new Restaurant(
                 id,
@@ -107,7 +125,10 @@ public class RestaurantFixture {
                 updatedAt,
                 user.getId(),
                 priceRange.getId(),
-                cuisine.getId()
+                cuisine.getId(),
+                likeCount,
+                version,
+                revision
         );
     }
 
@@ -115,7 +136,10 @@ public class RestaurantFixture {
         NewRestaurantFixture fixture = new NewRestaurantFixture()
                 .withName(name)
                 .withAddress(address)
-                .withNotes(notes);
+                .withNotes(notes)
+                .withNearestStation(nearestStation)
+                .withLatitude(latitude)
+                .withLongitude(longitude);
 
         if (cuisine != null) {
             fixture = fixture.withCuisineId(cuisine.getId());
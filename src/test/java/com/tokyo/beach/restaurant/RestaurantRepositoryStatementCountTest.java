@@ -0,0 +1,168 @@
+package com.tokyo.beach.restaurant;
+
+import com.tokyo.beach.StatementCountingDataSource;
+import com.tokyo.beach.cuisine.CuisineFixture;
+import com.tokyo.beach.like.LikeFixture;
+import com.tokyo.beach.photos.PhotoUrlFixture;
+import com.tokyo.beach.restaurants.comment.CommentRepository;
+import com.tokyo.beach.restaurants.cuisine.Cuisine;
+import com.tokyo.beach.restaurants.cuisine.CuisineDataMapper;
+import com.tokyo.beach.restaurants.like.LikeDataMapper;
+import com.tokyo.beach.restaurants.photos.NewPhotoUrl;
+import com.tokyo.beach.restaurants.photos.PhotoDataMapper;
+import com.tokyo.beach.restaurants.pricerange.PriceRangeDataMapper;
+import com.tokyo.beach.restaurants.referencedata.ReferenceDataRegistry;
+import com.tokyo.beach.restaurants.restaurant.*;
+import com.tokyo.beach.restaurants.s3.S3DeletionDataMapper;
+import com.tokyo.beach.restaurants.s3.S3StorageRepository;
+import com.tokyo.beach.restaurants.user.User;
+import com.tokyo.beach.restaurants.user.UserDataMapper;
+import com.tokyo.beach.user.UserFixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.tokyo.beach.TestDatabaseUtils.*;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class RestaurantRepositoryStatementCountTest {
+    private static final int MAX_STATEMENTS = 4;
+
+    private JdbcTemplate jdbcTemplate;
+    private StatementCountingDataSource dataSource;
+    private ReferenceDataRegistry referenceDataRegistry;
+    private RestaurantRepository repository;
+    private User user;
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(buildDataSource());
+        dataSource = new StatementCountingDataSource(buildDataSource());
+        JdbcTemplate countingJdbcTemplate = new JdbcTemplate(dataSource);
+        referenceDataRegistry = new ReferenceDataRegistry(
+                new CuisineDataMapper(jdbcTemplate),
+                new PriceRangeDataMapper(jdbcTemplate)
+        );
+        repository = new RestaurantRepository(
+                new RestaurantDataMapper(countingJdbcTemplate),
+                new RestaurantDetailDataMapper(countingJdbcTemplate),
+                new PhotoDataMapper(countingJdbcTemplate),
+                new UserDataMapper(countingJdbcTemplate),
+                new LikeDataMapper(countingJdbcTemplate),
+                referenceDataRegistry,
+                new CommentRepository(countingJdbcTemplate),
+                new S3StorageRepository(new S3DeletionDataMapper(jdbcTemplate))
+        );
+
+        setUpUser();
+    }
+
+    @After
+    public void tearDown() {
+        truncateAllTables(jdbcTemplate);
+    }
+
+    @Test
+    public void test_getRestaurantsPostedByUser_usesBoundedStatements() {
+        int statementsForOne = countStatementsForPosts(1);
+        int statementsForMany = countStatementsForPosts(25);
+
+        assertThat(statementsForMany, is(statementsForOne));
+        assertThat(statementsForMany, lessThanOrEqualTo(MAX_STATEMENTS));
+    }
+
+    @Test
+    public void test_getRestaurantsLikedByUser_usesBoundedStatements() {
+        int statementsForOne = countStatementsForLikes(1);
+        int statementsForMany = countStatementsForLikes(25);
+
+        assertThat(statementsForMany, is(statementsForOne));
+        assertThat(statementsForMany, lessThanOrEqualTo(MAX_STATEMENTS + 1));
+    }
+
+    @Test
+    public void test_create_writesRestaurantAndPhotosThenReadsOnlyTheRestaurantRow() {
+        referenceDataRegistry.refresh();
+        dataSource.reset();
+
+        SerializedRestaurant restaurant = repository.create(
+                new NewRestaurantFixture()
+                        .withPhotoUrls(asList(
+                                new NewPhotoUrl("http://photo-1"),
+                                new NewPhotoUrl("http://photo-2"),
+                                new NewPhotoUrl("http://photo-3")
+                        ))
+                        .build(),
+                user.getId()
+        );
+
+        assertThat(restaurant.getPhotoUrlList().size(), is(3));
+        assertThat(restaurant.getCreatedByUser().getName(), is(user.getName()));
+        assertThat(restaurant.getCuisine().getId(), is(0L));
+        assertThat(dataSource.getStatementCount(), is(4));
+    }
+
+    private int countStatementsForPosts(int numberOfRestaurants) {
+        persistRestaurants(numberOfRestaurants);
+        referenceDataRegistry.refresh();
+        dataSource.reset();
+
+        List<SerializedRestaurant> posts = repository.getRestaurantsPostedByUser(user.getId());
+
+        assertThat(posts.size(), is(numberOfRestaurants));
+        assertThat(posts.get(0).getCuisine().getName(), startsWith("Cuisine "));
+        truncateAllTables(jdbcTemplate);
+        setUpUser();
+        return dataSource.getStatementCount();
+    }
+
+    private int countStatementsForLikes(int numberOfRestaurants) {
+        persistRestaurants(numberOfRestaurants).forEach(restaurant ->
+                new LikeFixture()
+                        .withRestaurantId(restaurant.getId())
+                        .withUserId(user.getId())
+                        .persist(jdbcTemplate)
+        );
+        referenceDataRegistry.refresh();
+        dataSource.reset();
+
+        List<SerializedRestaurant> likes = repository.getRestaurantsLikedByUser(user.getId());
+
+        assertThat(likes.size(), is(numberOfRestaurants));
+        truncateAllTables(jdbcTemplate);
+        setUpUser();
+        return dataSource.getStatementCount();
+    }
+
+    private List<Restaurant> persistRestaurants(int numberOfRestaurants) {
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < numberOfRestaurants; i++) {
+            Cuisine cuisine = new CuisineFixture().withName("Cuisine " + i).persist(jdbcTemplate);
+            Restaurant restaurant = new RestaurantFixture()
+                    .withName("Restaurant " + i)
+                    .withCuisine(cuisine)
+                    .withUser(user)
+                    .persist(jdbcTemplate);
+            new PhotoUrlFixture()
+                    .withUrl("http://photo-" + i)
+                    .withRestaurantId(restaurant.getId())
+                    .persist(jdbcTemplate);
+            restaurants.add(restaurant);
+        }
+        return restaurants;
+    }
+
+    private void setUpUser() {
+        createDefaultCuisine(jdbcTemplate);
+        createDefaultPriceRange(jdbcTemplate);
+        user = new UserFixture().withEmail("joe@pivotal.io").persist(jdbcTemplate);
+    }
+}
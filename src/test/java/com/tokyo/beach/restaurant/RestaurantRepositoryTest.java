@@ -5,13 +5,13 @@ import com.tokyo.beach.restaurants.comment.CommentRepository;
 import com.tokyo.beach.restaurants.comment.SerializedComment;
 import com.tokyo.beach.restaurants.cuisine.Cuisine;
 import com.tokyo.beach.restaurants.cuisine.CuisineDataMapper;
-import com.tokyo.beach.restaurants.like.Like;
 import com.tokyo.beach.restaurants.like.LikeDataMapper;
 import com.tokyo.beach.restaurants.photos.NewPhotoUrl;
 import com.tokyo.beach.restaurants.photos.PhotoDataMapper;
 import com.tokyo.beach.restaurants.photos.PhotoUrl;
 import com.tokyo.beach.restaurants.pricerange.PriceRange;
 import com.tokyo.beach.restaurants.pricerange.PriceRangeDataMapper;
+import com.tokyo.beach.restaurants.referencedata.ReferenceDataRegistry;
 import com.tokyo.beach.restaurants.restaurant.*;
 import com.tokyo.beach.restaurants.s3.S3StorageRepository;
 import com.tokyo.beach.restaurants.user.User;
@@ -20,12 +20,15 @@ import com.tokyo.beach.user.UserFixture;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
@@ -33,10 +36,12 @@ import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
 
 public class RestaurantRepositoryTest {
     private RestaurantDataMapper restaurantDataMapper;
+    private RestaurantDetailDataMapper restaurantDetailDataMapper;
     private PhotoDataMapper photoDataMapper;
     private CuisineDataMapper cuisineDataMapper;
     private UserDataMapper userDataMapper;
@@ -49,6 +54,7 @@ public class RestaurantRepositoryTest {
     @Before
     public void setUp() {
         restaurantDataMapper = mock(RestaurantDataMapper.class);
+        restaurantDetailDataMapper = mock(RestaurantDetailDataMapper.class);
         photoDataMapper = mock(PhotoDataMapper.class);
         cuisineDataMapper = mock(CuisineDataMapper.class);
         userDataMapper = mock(UserDataMapper.class);
@@ -56,11 +62,11 @@ public class RestaurantRepositoryTest {
         priceRangeDataMapper = mock(PriceRangeDataMapper.class);
         commentRepository = mock(CommentRepository.class);
         s3StorageRepository = mock(S3StorageRepository.class);
-        repository = new RestaurantRepository(restaurantDataMapper, photoDataMapper, userDataMapper, priceRangeDataMapper, likeDataMapper, cuisineDataMapper, commentRepository, s3StorageRepository);
+        repository = new RestaurantRepository(restaurantDataMapper, restaurantDetailDataMapper, photoDataMapper, userDataMapper, likeDataMapper, new ReferenceDataRegistry(cuisineDataMapper, priceRangeDataMapper), commentRepository, s3StorageRepository);
     }
 
     @Test
-    public void test_getAll_returnsAllRestaurants() {
+    public void test_getPage_returnsRestaurants() {
         Long userId = 1L;
         Cuisine cuisine = new Cuisine(20L, "Swedish");
         PriceRange priceRange = new PriceRange(1L, "100yen");
@@ -71,11 +77,12 @@ public class RestaurantRepositoryTest {
                 .withCuisine(cuisine)
                 .withPriceRange(priceRange)
                 .withUser(user)
+                .withLikeCount(2)
                 .build();
         List<Restaurant> restaurants = singletonList(
               restaurant
         );
-        when(restaurantDataMapper.getAll()).thenReturn(restaurants);
+        when(restaurantDataMapper.getPage(RestaurantFilter.NONE, Optional.empty(), 21)).thenReturn(restaurants);
         List<PhotoUrl> photoUrls = singletonList(
                 new PhotoUrl(999, "http://www.cats.com/my-cat.jpg", restaurant.getId())
         );
@@ -86,16 +93,18 @@ public class RestaurantRepositoryTest {
         when(priceRangeDataMapper.getAll()).thenReturn(
                 asList(priceRange)
         );
-        when(likeDataMapper.findForRestaurants(restaurants)).thenReturn(
-                asList(new Like(1L, 1L), new Like(2L, 1L))
+        when(likeDataMapper.findLikedRestaurantIds(userId, singletonList(1L))).thenReturn(
+                singleton(1L)
         );
         when(cuisineDataMapper.getAll()).thenReturn(
                 asList(cuisine)
         );
 
-        List<SerializedRestaurant> serializedRestaurants = repository.getAll(userId);
+        RestaurantPage page = repository.getPage(userId, RestaurantFilter.NONE, Optional.empty(), 20, Optional.empty());
+        List<SerializedRestaurant> serializedRestaurants = page.getRestaurants();
 
         assertThat(serializedRestaurants.size(), equalTo(1));
+        assertThat(page.getNext().isPresent(), equalTo(false));
 
         SerializedRestaurant serializedRestaurant = serializedRestaurants.get(0);
 
@@ -111,17 +120,17 @@ public class RestaurantRepositoryTest {
     }
 
     @Test
-    public void test_getAll_returnsRestaurantsWithoutLikes() throws Exception {
+    public void test_getPage_returnsRestaurantsWithoutLikes() throws Exception {
         Restaurant restaurant = new RestaurantFixture().build();
         List<Restaurant> restaurants = singletonList(restaurant);
-        when(restaurantDataMapper.getAll()).thenReturn(restaurants);
+        when(restaurantDataMapper.getPage(RestaurantFilter.NONE, Optional.empty(), 21)).thenReturn(restaurants);
         when(photoDataMapper.findForRestaurants(anyObject())).thenReturn(emptyList());
         when(userDataMapper.findForUserIds(anyList())).thenReturn(emptyList());
         when(priceRangeDataMapper.getAll()).thenReturn(emptyList());
-        when(likeDataMapper.findForRestaurants(restaurants)).thenReturn(emptyList());
+        when(likeDataMapper.findLikedRestaurantIds(anyLong(), anyList())).thenReturn(emptySet());
         when(cuisineDataMapper.getAll()).thenReturn(emptyList());
 
-        List<SerializedRestaurant> serializedRestaurants = repository.getAll(1L);
+        List<SerializedRestaurant> serializedRestaurants = repository.getPage(1L, RestaurantFilter.NONE, Optional.empty(), 20, Optional.empty()).getRestaurants();
 
         assertThat(serializedRestaurants.size(), equalTo(1));
 
@@ -132,57 +141,164 @@ public class RestaurantRepositoryTest {
     }
 
     @Test
-    public void test_getRestaurant_returnsRestaurant() throws Exception {
-        Long userId = 1L;
-        Cuisine cuisine = new Cuisine(1L, "Ramen");
-        User user = new User(userId, "hanako@email", "hanako");
-        List<SerializedComment> comments = singletonList(
-                new SerializedComment(
-                        new CommentFixture().withId(1).build(),
-                        user
-                )
+    public void test_getPage_returnsCursorForLastRestaurant_whenMoreRestaurantsExist() throws Exception {
+        Restaurant first = new RestaurantFixture().withId(3).build();
+        Restaurant second = new RestaurantFixture().withId(2).build();
+        Restaurant third = new RestaurantFixture().withId(1).build();
+        RestaurantCursor after = new RestaurantCursor(Instant.EPOCH, 4L);
+        when(restaurantDataMapper.getPage(RestaurantFilter.NONE, Optional.of(after), 3)).thenReturn(asList(first, second, third));
+        when(photoDataMapper.findForRestaurants(anyObject())).thenReturn(emptyList());
+        when(userDataMapper.findForUserIds(anyList())).thenReturn(emptyList());
+        when(priceRangeDataMapper.getAll()).thenReturn(emptyList());
+        when(likeDataMapper.findLikedRestaurantIds(anyLong(), anyList())).thenReturn(emptySet());
+        when(cuisineDataMapper.getAll()).thenReturn(emptyList());
+
+        RestaurantPage page = repository.getPage(1L, RestaurantFilter.NONE, Optional.of(after), 2, Optional.empty());
+
+        assertThat(page.getRestaurants().size(), equalTo(2));
+        assertThat(page.getRestaurants().get(1).getId(), equalTo(2L));
+        assertThat(page.getNext().get(), equalTo(RestaurantCursor.after(second)));
+    }
+
+    @Test
+    public void test_getPage_doesNotLookUpRelationsForEmptyPage() throws Exception {
+        when(restaurantDataMapper.getPage(RestaurantFilter.NONE, Optional.empty(), 21)).thenReturn(emptyList());
+
+        RestaurantPage page = repository.getPage(1L, RestaurantFilter.NONE, Optional.empty(), 20, Optional.empty());
+
+        assertThat(page.getRestaurants().size(), equalTo(0));
+        assertThat(page.getNext().isPresent(), equalTo(false));
+        verifyZeroInteractions(photoDataMapper, userDataMapper, likeDataMapper);
+    }
+
+    @Test
+    public void test_getPage_returnsNotModified_withoutLookingUpRelations_whenTheTagMatches() throws Exception {
+        List<Restaurant> restaurants = singletonList(
+                new RestaurantFixture().withId(1).withVersion(2).withRevision(5).build()
         );
-        PriceRange priceRange = new PriceRange(0L, "Not Specified");
+        when(restaurantDataMapper.getPage(RestaurantFilter.NONE, Optional.empty(), 21)).thenReturn(restaurants);
+        String eTag = RestaurantETag.forPage(1L, restaurants);
+
+        RestaurantPage page = repository.getPage(1L, RestaurantFilter.NONE, Optional.empty(), 20, Optional.of(eTag));
+
+        assertThat(page.isNotModified(), equalTo(true));
+        assertThat(page.getETag(), equalTo(eTag));
+        verifyZeroInteractions(photoDataMapper, userDataMapper, likeDataMapper);
+    }
+
+    @Test
+    public void test_getRestaurantsPostedByUser_returnsSerializedRestaurants() throws Exception {
+        Cuisine cuisine = new Cuisine(20L, "Swedish");
+        PriceRange priceRange = new PriceRange(1L, "100yen");
+        User user = new User(1L, "taro@email.com", "taro");
         Restaurant restaurant = new RestaurantFixture()
                 .withId(1)
                 .withCuisine(cuisine)
                 .withPriceRange(priceRange)
                 .withUser(user)
+                .withLikeCount(2)
                 .build();
-        List<PhotoUrl> photoUrls = asList(new PhotoUrl(1, "Url1", 1), new PhotoUrl(2, "Url2", 1));
+        List<Restaurant> restaurants = singletonList(restaurant);
+        when(restaurantDataMapper.getRestaurantsPostedByUser(1L)).thenReturn(restaurants);
+        when(photoDataMapper.findForRestaurants(anyObject())).thenReturn(emptyList());
+        when(userDataMapper.findForUserIds(anyList())).thenReturn(singletonList(user));
+        when(priceRangeDataMapper.getAll()).thenReturn(singletonList(priceRange));
+        when(cuisineDataMapper.getAll()).thenReturn(singletonList(cuisine));
+        when(likeDataMapper.findLikedRestaurantIds(1L, singletonList(1L))).thenReturn(emptySet());
 
-        when(userDataMapper.findForRestaurantId(restaurant.getId()))
-                .thenReturn(user);
-        when(restaurantDataMapper.get(1)).thenReturn(
-                Optional.of(restaurant)
-        );
-        when(cuisineDataMapper.findForRestaurant(restaurant.getId())).thenReturn(cuisine);
-        when(commentRepository.findForRestaurant(restaurant.getId())).thenReturn(
-                comments
-        );
-        when(likeDataMapper.findForRestaurant(restaurant.getId())).thenReturn(
-                asList(
-                        new Like(1L, 1L),
-                        new Like(12L, 1L)
-                )
-        );
-        when(priceRangeDataMapper.findForRestaurant(restaurant.getId())).thenReturn(
-                priceRange
+        List<SerializedRestaurant> serializedRestaurants = repository.getRestaurantsPostedByUser(1L);
+
+        assertThat(serializedRestaurants.size(), equalTo(1));
+        SerializedRestaurant serializedRestaurant = serializedRestaurants.get(0);
+        assertThat(serializedRestaurant.getCuisine(), equalTo(cuisine));
+        assertThat(serializedRestaurant.getPriceRange(), equalTo(priceRange));
+        assertThat(serializedRestaurant.getCreatedByUser(), equalTo(user));
+        assertThat(serializedRestaurant.isCurrentUserLikesRestaurant(), equalTo(false));
+        assertThat(serializedRestaurant.getNumberOfLikes(), equalTo(2L));
+        verify(cuisineDataMapper, never()).findForRestaurant(anyLong());
+    }
+
+    @Test
+    public void test_getRestaurantsLikedByUser_returnsSerializedRestaurants() throws Exception {
+        User poster = new User(5L, "hanako@email.com", "hanako");
+        Restaurant restaurant = new RestaurantFixture()
+                .withId(1)
+                .withUser(poster)
+                .withLikeCount(1)
+                .build();
+        List<Restaurant> restaurants = singletonList(restaurant);
+        when(likeDataMapper.getLikesByUser(99L)).thenReturn(singletonList(1L));
+        when(restaurantDataMapper.getRestaurantsByIds(singletonList(1L))).thenReturn(restaurants);
+        when(photoDataMapper.findForRestaurants(anyObject())).thenReturn(emptyList());
+        when(userDataMapper.findForUserIds(anyList())).thenReturn(singletonList(poster));
+        when(priceRangeDataMapper.getAll()).thenReturn(emptyList());
+        when(cuisineDataMapper.getAll()).thenReturn(emptyList());
+        when(likeDataMapper.findLikedRestaurantIds(99L, singletonList(1L))).thenReturn(singleton(1L));
+
+        List<SerializedRestaurant> serializedRestaurants = repository.getRestaurantsLikedByUser(99L);
+
+        assertThat(serializedRestaurants.size(), equalTo(1));
+        assertThat(serializedRestaurants.get(0).getCreatedByUser(), equalTo(poster));
+        assertThat(serializedRestaurants.get(0).isCurrentUserLikesRestaurant(), equalTo(true));
+        assertThat(serializedRestaurants.get(0).getNumberOfLikes(), equalTo(1L));
+    }
+
+    @Test
+    public void test_getRestaurantsLikedByUser_doesNotLookUpRestaurantsWithoutLikes() throws Exception {
+        when(likeDataMapper.getLikesByUser(99L)).thenReturn(emptyList());
+
+        List<SerializedRestaurant> serializedRestaurants = repository.getRestaurantsLikedByUser(99L);
+
+        assertThat(serializedRestaurants.size(), equalTo(0));
+        verify(restaurantDataMapper, never()).getRestaurantsByIds(anyList());
+    }
+
+    @Test
+    public void test_getByIds_keepsTheRequestedOrder_andSkipsMissingRestaurants() throws Exception {
+        List<Long> ids = asList(2L, 7L, 1L);
+        when(restaurantDataMapper.getRestaurantsByIds(ids)).thenReturn(asList(
+                new RestaurantFixture().withId(1).build(),
+                new RestaurantFixture().withId(2).build()
+        ));
+        when(photoDataMapper.findForRestaurants(anyObject())).thenReturn(emptyList());
+        when(userDataMapper.findForUserIds(anyList())).thenReturn(emptyList());
+        when(likeDataMapper.findLikedRestaurantIds(anyLong(), anyList())).thenReturn(emptySet());
+
+        List<SerializedRestaurant> serializedRestaurants = repository.getByIds(99L, ids);
+
+        assertThat(serializedRestaurants.size(), equalTo(2));
+        assertThat(serializedRestaurants.get(0).getId(), equalTo(2L));
+        assertThat(serializedRestaurants.get(1).getId(), equalTo(1L));
+    }
+
+    @Test
+    public void test_getRestaurant_returnsRestaurantFromDetailDataMapper() throws Exception {
+        Restaurant restaurant = new RestaurantFixture().withId(1).build();
+        SerializedRestaurant serializedRestaurant = new SerializedRestaurant(
+                restaurant,
+                emptyList(),
+                new Cuisine(1L, "Ramen"),
+                new PriceRange(0L, "Not Specified"),
+                new User(1L, "hanako@email", "hanako"),
+                emptyList(),
+                true,
+                2L
         );
-        when(photoDataMapper.findForRestaurant(restaurant.getId())).thenReturn(photoUrls);
+        when(restaurantDetailDataMapper.get(restaurant.getId(), 1L))
+                .thenReturn(Optional.of(serializedRestaurant));
 
-        SerializedRestaurant serializedRestaurant = repository.get(restaurant.getId(), userId).get();
+        Optional<SerializedRestaurant> maybeRestaurant = repository.get(restaurant.getId(), 1L);
 
-        assertThat(serializedRestaurant.getId(), equalTo(1L));
-        assertThat(serializedRestaurant.getCreatedByUser().getId(), equalTo(userId));
-        assertThat(serializedRestaurant.getPhotoUrlList().size(), equalTo(2));
-        assertThat(serializedRestaurant.getPhotoUrlList().get(0).getId(), equalTo(1L));
-        assertThat(serializedRestaurant.getCuisine().getId(), equalTo(1L));
-        assertThat(serializedRestaurant.getPriceRange().getId(), equalTo(0L));
-        assertThat(serializedRestaurant.isCurrentUserLikesRestaurant(), equalTo(true));
-        assertThat(serializedRestaurant.getNumberOfLikes(), equalTo(2L));
-        assertThat(serializedRestaurant.getComments().size(), equalTo(1));
-        assertThat(serializedRestaurant.getComments().get(0).getId(), equalTo(1L));
+        assertThat(maybeRestaurant.get(), equalTo(serializedRestaurant));
+        verifyZeroInteractions(restaurantDataMapper, photoDataMapper, userDataMapper, cuisineDataMapper,
+                priceRangeDataMapper, commentRepository, likeDataMapper);
+    }
+
+    @Test
+    public void test_getRestaurant_returnsEmptyForUnknownRestaurant() throws Exception {
+        when(restaurantDetailDataMapper.get(999L, 1L)).thenReturn(Optional.empty());
+
+        assertThat(repository.get(999L, 1L).isPresent(), equalTo(false));
     }
 
     @Test
@@ -211,11 +327,10 @@ public class RestaurantRepositoryTest {
                 .thenReturn(restaurant);
         when(photoDataMapper.createPhotosForRestaurant(anyLong(), anyListOf(NewPhotoUrl.class)))
                 .thenReturn(photoUrls);
-        when(cuisineDataMapper.findForRestaurant(restaurant.getId())).thenReturn(cuisine);
-
-        when(userDataMapper.findForRestaurantId(restaurant.getId()))
-                .thenReturn(user);
-        when(priceRangeDataMapper.findForRestaurant(restaurant.getId())).thenReturn(priceRange);
+        when(restaurantDataMapper.get(1L)).thenReturn(Optional.of(restaurant));
+        when(cuisineDataMapper.getAll()).thenReturn(singletonList(cuisine));
+        when(priceRangeDataMapper.getAll()).thenReturn(singletonList(priceRange));
+        when(userDataMapper.get(userId)).thenReturn(Optional.of(user));
 
         SerializedRestaurant createdRestaurant = repository.create(newRestaurant, userId);
 
@@ -229,6 +344,33 @@ public class RestaurantRepositoryTest {
         assertThat(createdRestaurant.isCurrentUserLikesRestaurant(), equalTo(false));
         assertThat(createdRestaurant.getNumberOfLikes(), equalTo(0L));
         assertThat(createdRestaurant.getComments().size(), equalTo(0));
+        verify(userDataMapper, never()).findForRestaurantId(anyLong());
+        verify(cuisineDataMapper, never()).findForRestaurant(anyLong());
+        verify(priceRangeDataMapper, never()).findForRestaurant(anyLong());
+    }
+
+    @Test
+    public void test_getRestaurantsPostedByUser_reloadsReferenceDataMissingFromTheRegistry() throws Exception {
+        Cuisine cuisine = new Cuisine(7, "Soba");
+        PriceRange priceRange = new PriceRange(3, "3000~");
+        User user = new User(1L, "taro@email.com", "taro");
+        Restaurant restaurant = new RestaurantFixture()
+                .withId(1)
+                .withCuisine(cuisine)
+                .withPriceRange(priceRange)
+                .withUser(user)
+                .build();
+        when(restaurantDataMapper.getRestaurantsPostedByUser(1L)).thenReturn(singletonList(restaurant));
+        when(photoDataMapper.findForRestaurants(anyObject())).thenReturn(emptyList());
+        when(userDataMapper.findForUserIds(anyList())).thenReturn(singletonList(user));
+        when(likeDataMapper.findLikedRestaurantIds(1L, singletonList(1L))).thenReturn(emptySet());
+        when(cuisineDataMapper.getAll()).thenReturn(emptyList(), singletonList(cuisine));
+        when(priceRangeDataMapper.getAll()).thenReturn(emptyList(), singletonList(priceRange));
+
+        SerializedRestaurant serializedRestaurant = repository.getRestaurantsPostedByUser(1L).get(0);
+
+        assertThat(serializedRestaurant.getCuisine(), equalTo(cuisine));
+        assertThat(serializedRestaurant.getPriceRange(), equalTo(priceRange));
     }
 
     @Test
@@ -241,6 +383,7 @@ public class RestaurantRepositoryTest {
                 .withCuisine(cuisine)
                 .withPriceRange(priceRange)
                 .withUser(user)
+                .withLikeCount(2)
                 .build();
 
         NewRestaurant newRestaurant = new NewRestaurantFixture()
@@ -259,32 +402,25 @@ public class RestaurantRepositoryTest {
                 )
         );
 
-        when(restaurantDataMapper.updateRestaurant(restaurant.getId(), newRestaurant)).thenReturn(
-                restaurant
+        when(restaurantDataMapper.updateRestaurant(restaurant.getId(), newRestaurant, Optional.empty())).thenReturn(
+                Optional.of(restaurant)
         );
         when(photoDataMapper.createPhotosForRestaurant(restaurant.getId(), asList()))
                 .thenReturn(asList());
         when(photoDataMapper.findForRestaurant(restaurant.getId()))
                 .thenReturn(asList());
-        when(cuisineDataMapper.findForRestaurant(restaurant.getId())).thenReturn(
-                cuisine
-        );
-        when(priceRangeDataMapper.findForRestaurant(restaurant.getId()))
-                .thenReturn(priceRange);
-        when(userDataMapper.findForRestaurantId(restaurant.getId()))
-                .thenReturn(user);
+        when(cuisineDataMapper.getAll()).thenReturn(singletonList(cuisine));
+        when(priceRangeDataMapper.getAll()).thenReturn(singletonList(priceRange));
+        when(userDataMapper.get(user.getId())).thenReturn(Optional.of(user));
         when(commentRepository.findForRestaurant(restaurant.getId())).thenReturn(
                 comments
         );
-        when(likeDataMapper.findForRestaurant(restaurant.getId())).thenReturn(
-                asList(
-                        new Like(user.getId(), restaurant.getId()),
-                        new Like(12L, restaurant.getId())
-                )
+        when(likeDataMapper.findLikedRestaurantIds(user.getId(), singletonList(restaurant.getId()))).thenReturn(
+                singleton(restaurant.getId())
         );
 
 
-        SerializedRestaurant updatedRestaurant = repository.update(restaurant.getId(), newRestaurant);
+        SerializedRestaurant updatedRestaurant = repository.update(restaurant.getId(), user.getId(), newRestaurant, Optional.empty()).get();
         assertThat(updatedRestaurant.getId(), equalTo(1L));
         assertThat(updatedRestaurant.getCreatedByUser().getId(), equalTo(99L));
         assertThat(updatedRestaurant.getPhotoUrlList().size(), equalTo(0));
@@ -296,6 +432,20 @@ public class RestaurantRepositoryTest {
         assertThat(updatedRestaurant.getComments().get(0).getId(), equalTo(1L));
     }
 
+    @Test
+    public void update_returnsEmpty_whenTheRestaurantIsNotAtTheExpectedVersion() {
+        NewRestaurant newRestaurant = new NewRestaurantFixture().build();
+        when(restaurantDataMapper.updateRestaurant(1L, newRestaurant, Optional.of(3L)))
+                .thenReturn(Optional.empty());
+
+
+        Optional<SerializedRestaurant> maybeRestaurant = repository.update(1L, 99L, newRestaurant, Optional.of(3L));
+
+
+        assertThat(maybeRestaurant.isPresent(), equalTo(false));
+        verify(photoDataMapper, never()).createPhotosForRestaurant(anyLong(), anyListOf(NewPhotoUrl.class));
+    }
+
     @Test
     public void update_persistsTheRestaurant_addsOnlyNewPhotoUrls() {
         long originalRestaurantId = 1;
@@ -331,18 +481,17 @@ public class RestaurantRepositoryTest {
                         new PhotoUrl(999, "http://new-url-two", 1)
                 ));
 
-        when(cuisineDataMapper.findForRestaurant(existingRestaurant.getId())).thenReturn(
-                cuisine
-        );
-        when(priceRangeDataMapper.findForRestaurant(existingRestaurant.getId()))
-                .thenReturn(priceRange);
-        when(userDataMapper.findForRestaurantId(existingRestaurant.getId()))
-                .thenReturn(user);
+        when(cuisineDataMapper.getAll()).thenReturn(singletonList(cuisine));
+        when(priceRangeDataMapper.getAll()).thenReturn(singletonList(priceRange));
+        when(userDataMapper.get(existingRestaurant.getCreatedByUserId())).thenReturn(Optional.of(user));
 
-        when(restaurantDataMapper.updateRestaurant(originalRestaurantId, newRestaurant))
-                .thenReturn(existingRestaurant);
+        when(restaurantDataMapper.updateRestaurant(originalRestaurantId, newRestaurant, Optional.empty()))
+                .thenReturn(Optional.of(existingRestaurant));
+        when(restaurantDataMapper.get(originalRestaurantId)).thenReturn(Optional.of(existingRestaurant));
 
-        SerializedRestaurant updatedSerializedRestaurant = repository.update(existingRestaurant.getId(), newRestaurant);
+        SerializedRestaurant updatedSerializedRestaurant = repository.update(
+                existingRestaurant.getId(), user.getId(), newRestaurant, Optional.empty()
+        ).get();
         assertThat(
                 updatedSerializedRestaurant.getPhotoUrlList(),
                 equalTo(asList(
@@ -390,7 +539,26 @@ public class RestaurantRepositoryTest {
 
         repository.delete(restaurant.getId(), restaurant.getCreatedByUserId());
 
-        verify(s3StorageRepository, times(1)).deleteFile("http://file1");
-        verify(s3StorageRepository, times(1)).deleteFile("http://file2");
+        verify(s3StorageRepository, times(1)).deleteFiles(asList("http://file1", "http://file2"));
+    }
+
+    @Test
+    public void test_deletePhotoUrl_deletesPhotoAndQueuesItsFile() {
+        when(photoDataMapper.get(10)).thenReturn(Optional.of(new PhotoUrl(10, "http://hoge/image.jpg", 20)));
+
+        repository.deletePhotoUrl(10);
+
+        verify(photoDataMapper, times(1)).delete(10);
+        verify(s3StorageRepository, times(1)).deleteFile("http://hoge/image.jpg");
+    }
+
+    @Test
+    public void test_deletePhotoUrl_doesntDeleteNonExistentPhotoUrl() {
+        when(photoDataMapper.get(10)).thenReturn(Optional.empty());
+
+        repository.deletePhotoUrl(10);
+
+        verify(photoDataMapper, never()).delete(10);
+        verify(s3StorageRepository, never()).deleteFile(anyString());
     }
 }
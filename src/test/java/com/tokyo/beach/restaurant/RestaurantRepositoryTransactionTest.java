@@ -0,0 +1,217 @@
+package com.tokyo.beach.restaurant;
+
+import com.tokyo.beach.restaurants.comment.CommentRepository;
+import com.tokyo.beach.restaurants.cuisine.CuisineDataMapper;
+import com.tokyo.beach.restaurants.like.LikeDataMapper;
+import com.tokyo.beach.restaurants.photos.NewPhotoUrl;
+import com.tokyo.beach.restaurants.photos.PhotoDataMapper;
+import com.tokyo.beach.restaurants.pricerange.PriceRangeDataMapper;
+import com.tokyo.beach.restaurants.referencedata.ReferenceDataRegistry;
+import com.tokyo.beach.restaurants.restaurant.*;
+import com.tokyo.beach.restaurants.s3.S3DeletionDataMapper;
+import com.tokyo.beach.restaurants.s3.S3StorageRepository;
+import com.tokyo.beach.restaurants.user.User;
+import com.tokyo.beach.restaurants.user.UserDataMapper;
+import com.tokyo.beach.user.UserFixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Optional;
+
+import static com.tokyo.beach.TestDatabaseUtils.*;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.nCopies;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// Runs the repository behind the same transaction interceptor Spring wraps
+// around @Transactional beans.
+public class RestaurantRepositoryTransactionTest {
+    private static final String TOO_LONG_URL = "http://" + String.join("", nCopies(500, "x"));
+
+    private JdbcTemplate jdbcTemplate;
+    private RestaurantChangeListener listener;
+    private RestaurantRepository repository;
+    private User user;
+    private boolean failEnqueue;
+
+    @Before
+    public void setUp() {
+        DataSource dataSource = buildDataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        listener = mock(RestaurantChangeListener.class);
+
+        RestaurantRepository target = new RestaurantRepository(
+                new RestaurantDataMapper(jdbcTemplate, singletonList(listener)),
+                new RestaurantDetailDataMapper(jdbcTemplate),
+                new PhotoDataMapper(jdbcTemplate),
+                new UserDataMapper(jdbcTemplate),
+                new LikeDataMapper(jdbcTemplate),
+                new ReferenceDataRegistry(new CuisineDataMapper(jdbcTemplate), new PriceRangeDataMapper(jdbcTemplate)),
+                new CommentRepository(jdbcTemplate),
+                new S3StorageRepository(new S3DeletionDataMapper(jdbcTemplate) {
+                    @Override
+                    public void enqueue(List<String> keys) {
+                        if (failEnqueue) {
+                            throw new IllegalStateException("enqueue failed");
+                        }
+                        super.enqueue(keys);
+                    }
+                })
+        );
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(
+                new DataSourceTransactionManager(dataSource),
+                new AnnotationTransactionAttributeSource()
+        ));
+        repository = (RestaurantRepository) proxyFactory.getProxy();
+
+        createDefaultCuisine(jdbcTemplate);
+        createDefaultPriceRange(jdbcTemplate);
+        user = new UserFixture().persist(jdbcTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        truncateAllTables(jdbcTemplate);
+    }
+
+    @Test
+    public void test_create_persistsRestaurantAndPhotos_andThenNotifiesListeners() {
+        SerializedRestaurant restaurant = repository.create(
+                newRestaurant(asList(new NewPhotoUrl("http://first-url"), new NewPhotoUrl("http://second-url"))),
+                user.getId()
+        );
+
+        assertThat(restaurant.getPhotoUrlList().size(), is(2));
+        assertThat(count("SELECT count(*) FROM photo_url WHERE restaurant_id = ?", restaurant.getId()), is(2));
+        verify(listener).restaurantSaved(any(Restaurant.class));
+    }
+
+    @Test
+    public void test_create_tagsRestaurantWithTheRevisionAfterItsPhotos() {
+        SerializedRestaurant restaurant = repository.create(
+                newRestaurant(singletonList(new NewPhotoUrl("http://first-url"))),
+                user.getId()
+        );
+
+        assertThat(
+                Optional.of(RestaurantETag.of(restaurant, user.getId())),
+                is(repository.getETag(restaurant.getId(), user.getId()))
+        );
+    }
+
+    @Test
+    public void test_update_tagsRestaurantWithTheRevisionAfterItsNewPhotos() {
+        SerializedRestaurant created = repository.create(newRestaurant(emptyList()), user.getId());
+
+        SerializedRestaurant updated = repository.update(
+                created.getId(),
+                user.getId(),
+                newRestaurant(singletonList(new NewPhotoUrl("http://first-url"))),
+                Optional.empty()
+        ).get();
+
+        assertThat(
+                Optional.of(RestaurantETag.of(updated, user.getId())),
+                is(repository.getETag(created.getId(), user.getId()))
+        );
+    }
+
+    @Test
+    public void test_create_rollsBackRestaurant_whenAPhotoCannotBeSaved() {
+        try {
+            repository.create(
+                    newRestaurant(asList(new NewPhotoUrl("http://first-url"), new NewPhotoUrl(TOO_LONG_URL))),
+                    user.getId()
+            );
+            fail("Expected the photo insert to fail");
+        } catch (DataIntegrityViolationException expected) {
+        }
+
+        assertThat(count("SELECT count(*) FROM restaurant"), is(0));
+        assertThat(count("SELECT count(*) FROM photo_url"), is(0));
+        verify(listener, never()).restaurantSaved(any(Restaurant.class));
+    }
+
+    @Test
+    public void test_update_rollsBackRestaurantChanges_whenAPhotoCannotBeSaved() {
+        SerializedRestaurant created = repository.create(newRestaurant(emptyList()), user.getId());
+
+        try {
+            repository.update(
+                    created.getId(),
+                    user.getId(),
+                    new NewRestaurant("Ichiran", "Shibuya", null, null, 0, 0, "", 0L, 0L,
+                            singletonList(new NewPhotoUrl(TOO_LONG_URL))),
+                    Optional.empty()
+            );
+            fail("Expected the photo insert to fail");
+        } catch (DataIntegrityViolationException expected) {
+        }
+
+        List<String> names = jdbcTemplate.queryForList("SELECT name FROM restaurant", String.class);
+        assertThat(names, is(singletonList("Afuri")));
+    }
+
+    @Test
+    public void test_delete_keepsRestaurant_whenItsFilesCannotBeQueued() {
+        SerializedRestaurant created = repository.create(
+                newRestaurant(singletonList(new NewPhotoUrl("http://first-url"))),
+                user.getId()
+        );
+        failEnqueue = true;
+
+        try {
+            repository.delete(created.getId(), user.getId());
+            fail("Expected the enqueue to fail");
+        } catch (IllegalStateException expected) {
+        }
+
+        assertThat(count("SELECT count(*) FROM restaurant"), is(1));
+        assertThat(count("SELECT count(*) FROM photo_url"), is(1));
+        verify(listener, never()).restaurantDeleted(created.getId());
+    }
+
+    @Test
+    public void test_deletePhotoUrl_keepsPhoto_whenItsFileCannotBeQueued() {
+        SerializedRestaurant created = repository.create(
+                newRestaurant(singletonList(new NewPhotoUrl("http://first-url"))),
+                user.getId()
+        );
+        failEnqueue = true;
+
+        try {
+            repository.deletePhotoUrl(created.getPhotoUrlList().get(0).getId());
+            fail("Expected the enqueue to fail");
+        } catch (IllegalStateException expected) {
+        }
+
+        assertThat(count("SELECT count(*) FROM photo_url"), is(1));
+    }
+
+    private NewRestaurant newRestaurant(List<NewPhotoUrl> photoUrls) {
+        return new NewRestaurant("Afuri", "Roppongi", null, null, 0, 0, "", 0L, 0L, photoUrls);
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+}
@@ -2,11 +2,10 @@ package com.tokyo.beach.restaurant;
 
 import com.tokyo.beach.restaurants.cuisine.Cuisine;
 import com.tokyo.beach.restaurants.photos.NewPhotoUrl;
-import com.tokyo.beach.restaurants.photos.PhotoDataMapper;
 import com.tokyo.beach.restaurants.photos.PhotoUrl;
 import com.tokyo.beach.restaurants.pricerange.PriceRange;
 import com.tokyo.beach.restaurants.restaurant.*;
-import com.tokyo.beach.restaurants.s3.S3StorageRepository;
+import com.tokyo.beach.restaurants.search.RestaurantGeoIndex;
 import com.tokyo.beach.restaurants.user.User;
 import com.tokyo.beach.restutils.RestControllerExceptionHandler;
 import org.hamcrest.Matchers;
@@ -23,12 +22,14 @@ import java.util.List;
 import java.util.Optional;
 
 import static com.tokyo.beach.restutils.ControllerTestingUtils.createControllerAdvice;
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
@@ -38,21 +39,20 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
 public class RestaurantsControllerTest {
+    private static final String UPDATE_PAYLOAD = "{\"restaurant\": {\"name\": \"Afuri\", \"cuisine_id\": \"2\"}}";
+
     private RestaurantRepository restaurantRepository;
     private MockMvc mockMvc;
-    private PhotoDataMapper photoDataMapper;
-    private S3StorageRepository s3StorageRepository;
+    private RestaurantGeoIndex restaurantGeoIndex;
 
     @Before
     public void setUp() {
         restaurantRepository = mock(RestaurantRepository.class);
-        photoDataMapper = mock(PhotoDataMapper.class);
-        s3StorageRepository = mock(S3StorageRepository.class);
+        restaurantGeoIndex = mock(RestaurantGeoIndex.class);
 
         RestaurantsController restaurantsController = new RestaurantsController(
                 restaurantRepository,
-                photoDataMapper,
-                s3StorageRepository
+                restaurantGeoIndex
         );
 
         mockMvc = standaloneSetup(restaurantsController)
@@ -83,9 +83,12 @@ public class RestaurantsControllerTest {
                         2
                 )
         );
-        when(restaurantRepository.getAll(1L)).thenReturn(restaurants);
+        when(restaurantRepository.getPage(1L, RestaurantFilter.NONE, Optional.empty(), 20, Optional.empty()))
+                .thenReturn(new RestaurantPage(restaurants, Optional.empty(), "\"page\""));
         mockMvc.perform(get("/restaurants").requestAttr("userId", 1L))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"page\""))
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$[0].id", equalTo(1)))
                 .andExpect(jsonPath("$[0].name", equalTo("Afuri")))
                 .andExpect(jsonPath("$[0].address", equalTo("Roppongi")))
@@ -104,6 +107,125 @@ public class RestaurantsControllerTest {
                 .andExpect(jsonPath("$[0].created_by_user_name", equalTo("taro")));
     }
 
+    @Test
+    public void test_getAll_returnsNotModified_whenThePageIsUnchanged() throws Exception {
+        when(restaurantRepository.getPage(1L, RestaurantFilter.NONE, Optional.empty(), 20, Optional.of("\"page\"")))
+                .thenReturn(RestaurantPage.notModified("\"page\""));
+
+        mockMvc.perform(get("/restaurants").requestAttr("userId", 1L).header("If-None-Match", "\"page\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"page\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void test_search_returnsMatchingRestaurants() throws Exception {
+        User user = new User(1L, "taro@email.com", "taro");
+        when(restaurantRepository.search(1L, "afuri ramen", 20)).thenReturn(singletonList(
+                new SerializedRestaurant(new RestaurantFixture().withId(1).withName("Afuri").build(),
+                        emptyList(), null, null, user, emptyList(), false, 0)
+        ));
+
+        mockMvc.perform(get("/restaurants/search").param("q", " afuri ramen ").requestAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", equalTo("Afuri")));
+    }
+
+    @Test
+    public void test_search_rejectsBlankQuery() throws Exception {
+        mockMvc.perform(get("/restaurants/search").param("q", " ").requestAttr("userId", 1L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", equalTo("Invalid query.")));
+
+        verify(restaurantRepository, never()).search(anyLong(), anyString(), anyInt());
+    }
+
+    @Test
+    public void test_getNearby_returnsRestaurantsInDistanceOrder() throws Exception {
+        User user = new User(1L, "taro@email.com", "taro");
+        List<Long> nearbyIds = asList(2L, 1L);
+        when(restaurantGeoIndex.findNearby(35.6581, 139.7017, 500, 20)).thenReturn(nearbyIds);
+        when(restaurantRepository.getByIds(1L, nearbyIds)).thenReturn(asList(
+                new SerializedRestaurant(new RestaurantFixture().withId(2).withName("Ichiran").build(),
+                        emptyList(), null, null, user, emptyList(), false, 0),
+                new SerializedRestaurant(new RestaurantFixture().withId(1).withName("Afuri").build(),
+                        emptyList(), null, null, user, emptyList(), false, 0)
+        ));
+
+        mockMvc.perform(get("/restaurants/nearby?lat=35.6581&lng=139.7017&radius=500").requestAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", equalTo("Ichiran")))
+                .andExpect(jsonPath("$[1].name", equalTo("Afuri")));
+    }
+
+    @Test
+    public void test_getNearby_rejectsInvalidParameters() throws Exception {
+        mockMvc.perform(get("/restaurants/nearby?lat=91&lng=139.7").requestAttr("userId", 1L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", equalTo("Invalid location.")));
+        mockMvc.perform(get("/restaurants/nearby?lat=35.6&lng=139.7&radius=50000").requestAttr("userId", 1L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", equalTo("Invalid radius.")));
+        mockMvc.perform(get("/restaurants/nearby?lat=35.6&lng=139.7&limit=0").requestAttr("userId", 1L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", equalTo("Invalid limit.")));
+
+        verifyZeroInteractions(restaurantGeoIndex);
+    }
+
+    @Test
+    public void test_getAll_passesFiltersToRepository() throws Exception {
+        RestaurantFilter filter = new RestaurantFilter(2L, 3L, 4L, "afuri");
+        when(restaurantRepository.getPage(1L, filter, Optional.empty(), 20, Optional.empty()))
+                .thenReturn(new RestaurantPage(emptyList(), Optional.empty(), "\"page\""));
+
+        mockMvc.perform(get("/restaurants?cuisine_id=2&price_range_id=3&created_by_user_id=4")
+                .param("name", " afuri ")
+                .requestAttr("userId", 1L))
+                .andExpect(status().isOk());
+
+        verify(restaurantRepository, times(1)).getPage(1L, filter, Optional.empty(), 20, Optional.empty());
+    }
+
+    @Test
+    public void test_getAll_returnsNextCursorHeader_whenMoreRestaurantsExist() throws Exception {
+        RestaurantCursor cursor = new RestaurantCursor(Instant.EPOCH, 5L);
+        when(restaurantRepository.getPage(1L, RestaurantFilter.NONE, Optional.empty(), 1, Optional.empty()))
+                .thenReturn(new RestaurantPage(emptyList(), Optional.of(cursor), "\"page\""));
+
+        mockMvc.perform(get("/restaurants?limit=1").requestAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", cursor.encode()));
+    }
+
+    @Test
+    public void test_getAll_passesDecodedCursorToRepository() throws Exception {
+        RestaurantCursor cursor = new RestaurantCursor(Instant.EPOCH, 5L);
+        when(restaurantRepository.getPage(1L, RestaurantFilter.NONE, Optional.of(cursor), 10, Optional.empty()))
+                .thenReturn(new RestaurantPage(emptyList(), Optional.empty(), "\"page\""));
+
+        mockMvc.perform(get("/restaurants?limit=10&next=" + cursor.encode()).requestAttr("userId", 1L))
+                .andExpect(status().isOk());
+
+        verify(restaurantRepository, times(1)).getPage(1L, RestaurantFilter.NONE, Optional.of(cursor), 10, Optional.empty());
+    }
+
+    @Test
+    public void test_getAll_rejectsInvalidCursor() throws Exception {
+        mockMvc.perform(get("/restaurants?next=not-a-cursor").requestAttr("userId", 1L))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("{\"error\":\"Invalid cursor.\"}"));
+    }
+
+    @Test
+    public void test_getAll_rejectsLimitOutOfRange() throws Exception {
+        mockMvc.perform(get("/restaurants?limit=0").requestAttr("userId", 1L))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("{\"error\":\"Invalid limit.\"}"));
+        mockMvc.perform(get("/restaurants?limit=101").requestAttr("userId", 1L))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void test_get_returnsARestaurant() throws Exception {
         Restaurant restaurant = new RestaurantFixture()
@@ -116,6 +238,7 @@ public class RestaurantsControllerTest {
                 .withLongitude(2.34)
                 .withCreatedAt(ZonedDateTime.ofInstant(Instant.EPOCH, ZoneId.of("UTC")))
                 .withUpdatedAt(ZonedDateTime.ofInstant(Instant.EPOCH, ZoneId.of("UTC")))
+                .withVersion(4)
                 .build();
         SerializedRestaurant serializedRestaurant = new SerializedRestaurant(
             restaurant,
@@ -130,7 +253,9 @@ public class RestaurantsControllerTest {
         when(restaurantRepository.get(1L, 1L)).thenReturn(Optional.of(serializedRestaurant));
         mockMvc.perform(get("/restaurants/1").requestAttr("userId", 1L))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4.1.1\""))
                 .andExpect(jsonPath("$.id", equalTo(1)))
+                .andExpect(jsonPath("$.version", equalTo(4)))
                 .andExpect(jsonPath("$.name", equalTo("Afuri")))
                 .andExpect(jsonPath("$.address", equalTo("Roppongi")))
                 .andExpect(jsonPath("$.place_id", equalTo("abcd")))
@@ -150,6 +275,39 @@ public class RestaurantsControllerTest {
                 .andExpect(jsonPath("$.created_by_user_name", equalTo("taro")));
     }
 
+    @Test
+    public void test_get_returnsNotModified_withoutLoadingTheRestaurant_whenTheTagMatches() throws Exception {
+        when(restaurantRepository.getETag(1L, 1L)).thenReturn(Optional.of("\"4.2.1\""));
+
+        mockMvc.perform(get("/restaurants/1").requestAttr("userId", 1L).header("If-None-Match", "\"4.2.1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"4.2.1\""))
+                .andExpect(content().string(""));
+
+        verify(restaurantRepository, never()).get(anyLong(), anyLong());
+    }
+
+    @Test
+    public void test_get_returnsTheRestaurant_whenTheTagHasMoved() throws Exception {
+        SerializedRestaurant serializedRestaurant = new SerializedRestaurant(
+                new RestaurantFixture().withId(1).withVersion(4).withRevision(3).build(),
+                emptyList(),
+                new Cuisine(2, "Ramen"),
+                new PriceRange(1, "~900"),
+                new User(99L, "email", "jiro"),
+                emptyList(),
+                false,
+                0
+        );
+        when(restaurantRepository.getETag(1L, 1L)).thenReturn(Optional.of("\"4.3.1\""));
+        when(restaurantRepository.get(1L, 1L)).thenReturn(Optional.of(serializedRestaurant));
+
+        mockMvc.perform(get("/restaurants/1").requestAttr("userId", 1L).header("If-None-Match", "\"4.2.1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4.3.1\""))
+                .andExpect(jsonPath("$.id", equalTo(1)));
+    }
+
     @Test
     public void test_getInvalidRestaurantId_throwsException() throws Exception {
         when(restaurantRepository.get(1L, 1L)).thenReturn(
@@ -286,8 +444,12 @@ public class RestaurantsControllerTest {
 
         ArgumentCaptor<Long> attributeRestaurantId = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<NewRestaurant> attributeNewRestaurant = ArgumentCaptor.forClass(NewRestaurant.class);
-        when(restaurantRepository.update(attributeRestaurantId.capture(), attributeNewRestaurant.capture())).
-                thenReturn(serializedRestaurant);
+        when(restaurantRepository.update(
+                attributeRestaurantId.capture(),
+                eq(userId),
+                attributeNewRestaurant.capture(),
+                eq(Optional.empty())
+        )).thenReturn(Optional.of(serializedRestaurant));
         String updatedRestaurantPayload = "{\"restaurant\": " +
                 "{\"name\":\"Updated Name\", " +
                 "\"address\": \"Updated Address\", " +
@@ -306,6 +468,7 @@ public class RestaurantsControllerTest {
                         .content(updatedRestaurantPayload)
         )
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1.1.99\""))
                 .andExpect(jsonPath("$.name", is("Updated Name")))
                 .andExpect(jsonPath("$.address", is("Updated Address")))
                 .andExpect(jsonPath("$.place_id", is("updated-place-id")))
@@ -331,54 +494,95 @@ public class RestaurantsControllerTest {
     }
 
     @Test
-    public void test_deletePhoto_returnsOkHTTPStatus() throws Exception {
-        when(photoDataMapper.get(
-                anyLong()
-        )).thenReturn(Optional.empty());
+    public void test_update_passesIfMatchVersionToRepository() throws Exception {
+        SerializedRestaurant serializedRestaurant = new SerializedRestaurant(
+                new RestaurantFixture().withId(1).withVersion(4).build(),
+                emptyList(),
+                new Cuisine(2, "Ramen"),
+                new PriceRange(1, "~900"),
+                new User(99L, "email", "jiro"),
+                emptyList(),
+                false,
+                0
+        );
+        when(restaurantRepository.update(eq(1L), eq(11L), any(NewRestaurant.class), eq(Optional.of(3L))))
+                .thenReturn(Optional.of(serializedRestaurant));
 
 
-        ResultActions result = mockMvc.perform(delete("/restaurants/10/photoUrls/20")
-                .requestAttr("userId", 11L)
-        );
+        mockMvc.perform(
+                patch("/restaurants/1")
+                        .requestAttr("userId", 11L)
+                        .header("If-Match", "\"3\"")
+                        .contentType(APPLICATION_JSON_UTF8_VALUE)
+                        .content(UPDATE_PAYLOAD)
+        )
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4.1.11\""));
+    }
 
+    @Test
+    public void test_update_returnsPreconditionFailed_whenTheVersionHasMoved() throws Exception {
+        when(restaurantRepository.update(eq(1L), eq(11L), any(NewRestaurant.class), eq(Optional.of(3L))))
+                .thenReturn(Optional.empty());
 
-        result.andExpect(status().isOk());
+
+        mockMvc.perform(
+                patch("/restaurants/1")
+                        .requestAttr("userId", 11L)
+                        .header("If-Match", "\"3\"")
+                        .contentType(APPLICATION_JSON_UTF8_VALUE)
+                        .content(UPDATE_PAYLOAD)
+        )
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string("{\"error\":\"Restaurant has been modified.\"}"));
     }
 
     @Test
-    public void test_deletePhoto_deletesPhotoUrlMadeByCurrentUser() throws Exception {
-        when(photoDataMapper.get(10))
-                .thenReturn(Optional.of(
-                        new PhotoUrl(
-                                10,
-                                "http://hoge/image.jpg",
-                                20
-                        )
-                ));
-
-        ResultActions result = mockMvc.perform(delete("/restaurants/20/photoUrls/10")
-                .requestAttr("userId", 99));
+    public void test_update_returnsPreconditionFailed_forAnUnrecognisedIfMatch() throws Exception {
+        mockMvc.perform(
+                patch("/restaurants/1")
+                        .requestAttr("userId", 11L)
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(APPLICATION_JSON_UTF8_VALUE)
+                        .content(UPDATE_PAYLOAD)
+        )
+                .andExpect(status().isPreconditionFailed());
 
-        result.andExpect(status().isOk());
-        verify(photoDataMapper, times(1)).get(10);
-        verify(photoDataMapper, times(1)).delete(10);
-        verify(s3StorageRepository, times(1)).deleteFile("http://hoge/image.jpg");
+        verify(restaurantRepository, never()).update(anyLong(), anyLong(), any(NewRestaurant.class), any());
     }
 
+    @Test
+    public void test_update_returnsNotFound_withoutIfMatch_whenTheRestaurantDoesNotExist() throws Exception {
+        when(restaurantRepository.update(eq(1L), eq(11L), any(NewRestaurant.class), eq(Optional.empty())))
+                .thenReturn(Optional.empty());
+
+
+        mockMvc.perform(
+                patch("/restaurants/1")
+                        .requestAttr("userId", 11L)
+                        .contentType(APPLICATION_JSON_UTF8_VALUE)
+                        .content(UPDATE_PAYLOAD)
+        )
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("{\"error\":\"Invalid restaurant id.\"}"));
+    }
 
     @Test
-    public void test_deletePhoto_doesntDeleteNonExistentPhotoUrl() throws Exception {
-        when(photoDataMapper.get(10))
-                .thenReturn(Optional.empty()
-                );
+    public void test_deletePhoto_returnsOkHTTPStatus() throws Exception {
+        ResultActions result = mockMvc.perform(delete("/restaurants/10/photoUrls/20")
+                .requestAttr("userId", 11L)
+        );
 
-        ResultActions result = mockMvc.perform(delete("/restaurants/20/photoUrls/10")
-                .requestAttr("userId", 99));
 
         result.andExpect(status().isOk());
-        verify(photoDataMapper, times(1)).get(10);
-        verify(photoDataMapper, never()).delete(10);
-        verify(s3StorageRepository, never()).deleteFile(anyString());
+    }
+
+    @Test
+    public void test_deletePhoto_callsRestaurantRepositoryWithPhotoUrlId() throws Exception {
+        mockMvc.perform(delete("/restaurants/20/photoUrls/10")
+                .requestAttr("userId", 99));
+
+        verify(restaurantRepository, times(1)).deletePhotoUrl(10L);
     }
 
     @Test
@@ -1,18 +1,41 @@
 package com.tokyo.beach.restaurant_suggestions;
 
+import com.tokyo.beach.restaurants.circuitbreaker.CircuitBreaker;
 import com.tokyo.beach.restaurants.restaurant_suggestions.RestaurantSuggestion;
 import com.tokyo.beach.restaurants.restaurant_suggestions.RestaurantSuggestionRepository;
+import com.tokyo.beach.restaurants.restaurant_suggestions.RestaurantSuggestionsConfiguration;
 import okhttp3.HttpUrl;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static java.util.Collections.emptyList;
 
 public class RestaurantSuggestionRepositoryTest {
+    private CircuitBreaker circuitBreaker;
+
+    private static final String AFURI_RESPONSE = "{\"results\": [{" +
+            "\"place_id\" : \"place-id\"," +
+            "\"name\": \"Afuri\"," +
+            "\"formatted_address\": \"Roppongi\"," +
+            "\"geometry\" : {\"location\" : {\"lat\" : 1.23, \"lng\" : 2.34}}" +
+            "}]}";
+
+    @Before
+    public void setUp() {
+        circuitBreaker = new RestaurantSuggestionsConfiguration().placesCircuitBreaker(20, 10, 50, 3000, 80, 30);
+    }
+
     @Test
     public void test_getAll_ReturnsRestaurantSuggestions() throws IOException, InterruptedException {
         MockWebServer server = new MockWebServer();
@@ -36,7 +59,7 @@ public class RestaurantSuggestionRepositoryTest {
         HttpUrl url = server.url("/");
 
 
-        RestaurantSuggestionRepository repository = new RestaurantSuggestionRepository();
+        RestaurantSuggestionRepository repository = buildRepository(5000, 16);
         RestaurantSuggestion restaurantSuggestion = repository.getAll(url).get(0);
 
         assertThat(restaurantSuggestion.getName(), is("ＡＦＵＲＩ "));
@@ -47,4 +70,153 @@ public class RestaurantSuggestionRepositoryTest {
 
         server.shutdown();
     }
+
+    @Test
+    public void test_getAll_servesNormalizedRepeatQueriesFromCache() throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody(AFURI_RESPONSE));
+        server.start();
+        RestaurantSuggestionRepository repository = buildRepository(5000, 16);
+
+
+        repository.getAll(server.url("/search?query=ＡＦＵＲＩ  Roppongi "));
+        List<RestaurantSuggestion> suggestions = repository.getAll(server.url("/search?query=afuri roppongi"));
+
+
+        assertThat(suggestions.get(0).getPlaceId(), is("place-id"));
+        assertThat(server.getRequestCount(), is(1));
+        assertThat(repository.getUpstreamCount(), is(1L));
+
+        server.shutdown();
+    }
+
+    @Test
+    public void test_getAll_doesNotCacheFailedLookups() throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody("not json"));
+        server.enqueue(new MockResponse().setBody(AFURI_RESPONSE));
+        server.start();
+        RestaurantSuggestionRepository repository = buildRepository(5000, 16);
+
+
+        assertThat(repository.getAll(server.url("/search?query=afuri")), is(emptyList()));
+        List<RestaurantSuggestion> suggestions = repository.getAll(server.url("/search?query=afuri"));
+
+
+        assertThat(suggestions.get(0).getPlaceId(), is("place-id"));
+        assertThat(server.getRequestCount(), is(2));
+
+        server.shutdown();
+    }
+
+    @Test
+    public void test_getAll_coalescesConcurrentIdenticalQueries() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody(AFURI_RESPONSE).setBodyDelay(500, TimeUnit.MILLISECONDS));
+        server.start();
+        RestaurantSuggestionRepository repository = buildRepository(5000, 16);
+        HttpUrl url = server.url("/search?query=afuri");
+
+
+        CompletableFuture<List<RestaurantSuggestion>> first = CompletableFuture.supplyAsync(() -> repository.getAll(url));
+        server.takeRequest();
+        CompletableFuture<List<RestaurantSuggestion>> second = CompletableFuture.supplyAsync(() -> repository.getAll(url));
+
+
+        assertThat(second.get().get(0).getPlaceId(), is("place-id"));
+        assertThat(first.get().get(0).getPlaceId(), is("place-id"));
+        assertThat(server.getRequestCount(), is(1));
+        assertThat(repository.getCoalescedCount(), is(1L));
+
+        server.shutdown();
+    }
+
+    @Test
+    public void test_getAll_fallsBackWhenUpstreamExceedsReadTimeout() throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody(AFURI_RESPONSE).setBodyDelay(1, TimeUnit.SECONDS));
+        server.start();
+        RestaurantSuggestionRepository repository = buildRepository(100, 16);
+
+
+        assertThat(repository.getAll(server.url("/search?query=afuri")), is(emptyList()));
+        assertThat(repository.getFallbackCount(), is(1L));
+
+        server.shutdown();
+    }
+
+    @Test
+    public void test_getAll_rejectsCallsBeyondConcurrencyLimit() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody(AFURI_RESPONSE).setBodyDelay(500, TimeUnit.MILLISECONDS));
+        server.start();
+        RestaurantSuggestionRepository repository = buildRepository(5000, 1);
+
+
+        CompletableFuture<List<RestaurantSuggestion>> first =
+                CompletableFuture.supplyAsync(() -> repository.getAll(server.url("/search?query=afuri")));
+        server.takeRequest();
+        List<RestaurantSuggestion> rejected = repository.getAll(server.url("/search?query=ippudo"));
+
+
+        assertThat(rejected, is(emptyList()));
+        assertThat(repository.getRejectedCount(), is(1L));
+        assertThat(first.get().get(0).getPlaceId(), is("place-id"));
+        assertThat(server.getRequestCount(), is(1));
+
+        server.shutdown();
+    }
+
+    @Test
+    public void test_getAll_returnsNoSuggestionsAndCachesNothingWhenUpstreamFails() throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setBody(AFURI_RESPONSE));
+        server.start();
+        RestaurantSuggestionRepository repository = buildRepository(5000, 16);
+
+
+        List<RestaurantSuggestion> unavailable = repository.getAll(server.url("/search?query=afuri"));
+        List<RestaurantSuggestion> suggestions = repository.getAll(server.url("/search?query=afuri"));
+
+
+        assertThat(unavailable, is(emptyList()));
+        assertThat(suggestions.get(0).getPlaceId(), is("place-id"));
+        assertThat(repository.getFallbackCount(), is(1L));
+
+        server.shutdown();
+    }
+
+    @Test
+    public void test_getAll_stopsCallingUpstreamOnceCircuitOpens() throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.start();
+        circuitBreaker = new CircuitBreaker(2, 2, 50, Duration.ofSeconds(3), 100, Duration.ofSeconds(30), Clock.systemUTC());
+        RestaurantSuggestionRepository repository = buildRepository(5000, 16);
+
+
+        repository.getAll(server.url("/search?query=afuri"));
+        repository.getAll(server.url("/search?query=ippudo"));
+        List<RestaurantSuggestion> suggestions = repository.getAll(server.url("/search?query=ichiran"));
+
+
+        assertThat(suggestions, is(emptyList()));
+        assertThat(server.getRequestCount(), is(2));
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(repository.getFallbackCount(), is(3L));
+
+        server.shutdown();
+    }
+
+    private RestaurantSuggestionRepository buildRepository(long readTimeoutMillis, int maxConcurrentCalls) {
+        return new RestaurantSuggestionRepository(
+                new RestaurantSuggestionsConfiguration().placesHttpClient(1000, readTimeoutMillis),
+                circuitBreaker,
+                600,
+                1000,
+                maxConcurrentCalls
+        );
+    }
 }
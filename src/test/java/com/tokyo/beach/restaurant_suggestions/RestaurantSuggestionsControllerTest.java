@@ -1,20 +1,27 @@
 package com.tokyo.beach.restaurant_suggestions;
 
+import com.tokyo.beach.restaurant.RestaurantFixture;
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
 import com.tokyo.beach.restaurants.restaurant_suggestions.*;
+import com.tokyo.beach.restaurants.search.RestaurantSearchIndex;
 import com.tokyo.beach.restutils.RestControllerExceptionHandler;
 import okhttp3.HttpUrl;
+import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.tokyo.beach.restutils.ControllerTestingUtils.createControllerAdvice;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -22,15 +29,23 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
 public class RestaurantSuggestionsControllerTest {
-    @Test
-    public void getAllRestaurantSuggestionsTest() throws Exception {
-        RestaurantSuggestionRepository restaurantSuggestionRepository = mock(RestaurantSuggestionRepository.class);
+    private RestaurantSuggestionRepository restaurantSuggestionRepository;
+    private RestaurantSearchIndex restaurantSearchIndex;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        restaurantSuggestionRepository = mock(RestaurantSuggestionRepository.class);
+        restaurantSearchIndex = mock(RestaurantSearchIndex.class);
         RestaurantSuggestionsController restaurantSuggestionsController
-                = new RestaurantSuggestionsController(restaurantSuggestionRepository);
-        MockMvc mockMvc = standaloneSetup(restaurantSuggestionsController)
+                = new RestaurantSuggestionsController(restaurantSuggestionRepository, restaurantSearchIndex);
+        mockMvc = standaloneSetup(restaurantSuggestionsController)
                 .setControllerAdvice(createControllerAdvice(new RestControllerExceptionHandler()))
                 .build();
+    }
 
+    @Test
+    public void getAllRestaurantSuggestionsTest() throws Exception {
 
         Coordinate location = new Coordinate(1.23, 2.34);
         Geometry geometry = new Geometry(location);
@@ -63,4 +78,66 @@ public class RestaurantSuggestionsControllerTest {
 
         assertEquals(url, urlArgument.getValue());
     }
+
+    @Test
+    public void test_getAll_returnsOnlyLocalRestaurantsWhenEnoughMatch() throws Exception {
+        List<Restaurant> localRestaurants = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            localRestaurants.add(new RestaurantFixture().withId(i).withName("Afuri " + i).build());
+        }
+        when(restaurantSearchIndex.search("Afuri", 10)).thenReturn(localRestaurants);
+
+
+        mockMvc.perform(
+                post("/restaurant_suggestions")
+                        .contentType(APPLICATION_JSON_UTF8_VALUE)
+                        .content("{\"restaurantName\":\"Afuri\"}")
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(jsonPath("$[0].name", equalTo("Afuri 0")));
+
+        verify(restaurantSuggestionRepository, never()).getAll(any(HttpUrl.class));
+    }
+
+    @Test
+    public void test_getAll_putsLocalRestaurantsFirstAndDropsRemoteDuplicates() throws Exception {
+        when(restaurantSearchIndex.search("Afuri", 10)).thenReturn(singletonList(
+                new RestaurantFixture().withName("Afuri Ebisu").withPlaceId("ebisu-place-id").build()
+        ));
+        Geometry geometry = new Geometry(new Coordinate(1.23, 2.34));
+        when(restaurantSuggestionRepository.getAll(any(HttpUrl.class))).thenReturn(asList(
+                new RestaurantSuggestion("ebisu-place-id", "AFURI Ebisu", "Ebisu", geometry),
+                new RestaurantSuggestion("roppongi-place-id", "AFURI Roppongi", "Roppongi", geometry)
+        ));
+
+
+        mockMvc.perform(
+                post("/restaurant_suggestions")
+                        .contentType(APPLICATION_JSON_UTF8_VALUE)
+                        .content("{\"restaurantName\":\"Afuri\"}")
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", equalTo("Afuri Ebisu")))
+                .andExpect(jsonPath("$[1].place_id", equalTo("roppongi-place-id")));
+    }
+
+    @Test
+    public void test_getAll_keepsRemoteSuggestionsWithoutPlaceId() throws Exception {
+        when(restaurantSearchIndex.search("Afuri", 10)).thenReturn(singletonList(
+                new RestaurantFixture().withName("Afuri Ebisu").withPlaceId(null).build()
+        ));
+        Geometry geometry = new Geometry(new Coordinate(1.23, 2.34));
+        when(restaurantSuggestionRepository.getAll(any(HttpUrl.class))).thenReturn(singletonList(
+                new RestaurantSuggestion(null, "AFURI Roppongi", "Roppongi", geometry)
+        ));
+
+
+        mockMvc.perform(
+                post("/restaurant_suggestions")
+                        .contentType(APPLICATION_JSON_UTF8_VALUE)
+                        .content("{\"restaurantName\":\"Afuri\"}")
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].name", equalTo("AFURI Roppongi")));
+    }
 }
@@ -0,0 +1,80 @@
+package com.tokyo.beach.s3;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.internal.StaticCredentialsProvider;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.tokyo.beach.restaurants.s3.S3Configuration;
+import com.tokyo.beach.restaurants.s3.S3RequestMetrics;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class S3ConfigurationTest {
+    private MockWebServer server;
+    private S3RequestMetrics s3RequestMetrics;
+    private AmazonS3 amazonS3;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        s3RequestMetrics = new S3RequestMetrics();
+        amazonS3 = S3Configuration.buildClient(
+                new StaticCredentialsProvider(new BasicAWSCredentials("access", "secret")),
+                server.url("/").toString(),
+                new ClientConfiguration().withMaxErrorRetry(0),
+                s3RequestMetrics
+        );
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void test_buildClient_sendsPathStyleRequestsToEndpointOverride() throws Exception {
+        server.enqueue(new MockResponse().setBody(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                        "<DeleteResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"></DeleteResult>"
+        ));
+
+
+        amazonS3.deleteObjects(new DeleteObjectsRequest("osusume-photos").withKeys("a.jpg").withQuiet(true));
+
+
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getMethod(), is("POST"));
+        assertThat(request.getPath(), is("/osusume-photos/?delete"));
+        assertThat(s3RequestMetrics.getRequestCount(), is(1L));
+        assertThat(s3RequestMetrics.getErrorCount(), is(0L));
+    }
+
+    @Test
+    public void test_buildClient_countsFailedRequests() {
+        server.enqueue(new MockResponse().setResponseCode(403).setBody(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                        "<Error><Code>AccessDenied</Code><Message>Access Denied</Message></Error>"
+        ));
+
+        try {
+            amazonS3.deleteObjects(new DeleteObjectsRequest("osusume-photos").withKeys("a.jpg"));
+            fail("Expected AmazonServiceException");
+        } catch (AmazonServiceException e) {
+            assertThat(e.getErrorCode(), is("AccessDenied"));
+        }
+
+        assertThat(s3RequestMetrics.getRequestCount(), is(1L));
+        assertThat(s3RequestMetrics.getErrorCount(), is(1L));
+    }
+}
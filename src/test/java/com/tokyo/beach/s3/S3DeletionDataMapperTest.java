@@ -0,0 +1,101 @@
+package com.tokyo.beach.s3;
+
+import com.tokyo.beach.restaurants.s3.S3Deletion;
+import com.tokyo.beach.restaurants.s3.S3DeletionDataMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static com.tokyo.beach.TestDatabaseUtils.buildDataSource;
+import static com.tokyo.beach.TestDatabaseUtils.truncateAllTables;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class S3DeletionDataMapperTest {
+    private static final Instant NOW = Instant.parse("2016-05-01T00:00:00Z");
+    private static final Instant LEASE_UNTIL = NOW.plus(Duration.ofMinutes(5));
+
+    private JdbcTemplate jdbcTemplate;
+    private S3DeletionDataMapper s3DeletionDataMapper;
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(buildDataSource());
+        s3DeletionDataMapper = new S3DeletionDataMapper(jdbcTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        truncateAllTables(jdbcTemplate);
+    }
+
+    @Test
+    public void test_claim_returnsDueRowsAndLeasesThem() {
+        enqueueDueAt(NOW, "a.jpg", "b.jpg");
+
+
+        List<S3Deletion> claimed = s3DeletionDataMapper.claim(NOW, LEASE_UNTIL, 10, 1000);
+
+
+        assertThat(claimed.size(), is(2));
+        assertThat(claimed.get(0).getKey(), is("a.jpg"));
+        assertThat(claimed.get(0).getAttempts(), is(0));
+        assertThat(s3DeletionDataMapper.claim(NOW, LEASE_UNTIL, 10, 1000).size(), is(0));
+        assertThat(s3DeletionDataMapper.claim(LEASE_UNTIL, LEASE_UNTIL.plusSeconds(1), 10, 1000).size(), is(2));
+    }
+
+    @Test
+    public void test_claim_respectsLimitAndMaxAttempts() {
+        enqueueDueAt(NOW, "a.jpg", "b.jpg", "c.jpg");
+        jdbcTemplate.update("UPDATE s3_deletion SET attempts = 10 WHERE object_key = 'a.jpg'");
+
+
+        List<S3Deletion> claimed = s3DeletionDataMapper.claim(NOW, LEASE_UNTIL, 10, 1);
+
+
+        assertThat(claimed.size(), is(1));
+        assertThat(claimed.get(0).getKey(), is("b.jpg"));
+    }
+
+    @Test
+    public void test_delete_removesRows() {
+        enqueueDueAt(NOW, "a.jpg", "b.jpg");
+        List<S3Deletion> claimed = s3DeletionDataMapper.claim(NOW, LEASE_UNTIL, 10, 1000);
+
+
+        s3DeletionDataMapper.delete(singletonList(claimed.get(0).getId()));
+
+
+        assertThat(jdbcTemplate.queryForObject("SELECT object_key FROM s3_deletion", String.class), is("b.jpg"));
+    }
+
+    @Test
+    public void test_reschedule_incrementsAttemptsAndRecordsError() {
+        enqueueDueAt(NOW, "a.jpg");
+        S3Deletion deletion = s3DeletionDataMapper.claim(NOW, LEASE_UNTIL, 10, 1000).get(0);
+
+
+        s3DeletionDataMapper.reschedule(deletion.getId(), NOW.plusSeconds(30), "AccessDenied: nope");
+
+
+        S3Deletion retried = s3DeletionDataMapper.claim(NOW.plusSeconds(30), LEASE_UNTIL, 10, 1000).get(0);
+        assertThat(retried.getAttempts(), is(1));
+        assertThat(
+                jdbcTemplate.queryForObject("SELECT last_error FROM s3_deletion", String.class),
+                is("AccessDenied: nope")
+        );
+    }
+
+    private void enqueueDueAt(Instant dueAt, String... keys) {
+        s3DeletionDataMapper.enqueue(asList(keys));
+        jdbcTemplate.update("UPDATE s3_deletion SET next_attempt_at = ?", Timestamp.from(dueAt));
+    }
+}
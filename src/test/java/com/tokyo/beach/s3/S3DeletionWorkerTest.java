@@ -0,0 +1,133 @@
+package com.tokyo.beach.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.tokyo.beach.restaurants.s3.S3Deletion;
+import com.tokyo.beach.restaurants.s3.S3DeletionDataMapper;
+import com.tokyo.beach.restaurants.s3.S3DeletionWorker;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class S3DeletionWorkerTest {
+    private static final Instant NOW = Instant.parse("2016-05-01T00:00:00Z");
+
+    private S3DeletionDataMapper s3DeletionDataMapper;
+    private AmazonS3 amazonS3;
+    private S3DeletionWorker worker;
+
+    @Before
+    public void setUp() {
+        s3DeletionDataMapper = mock(S3DeletionDataMapper.class);
+        amazonS3 = mock(AmazonS3.class);
+        worker = new S3DeletionWorker(
+                s3DeletionDataMapper,
+                amazonS3,
+                "osusume-photos",
+                10,
+                Clock.fixed(NOW, ZoneOffset.UTC)
+        );
+    }
+
+    @Test
+    public void test_drain_deletesClaimedKeysInOneRequest() {
+        when(s3DeletionDataMapper.claim(eq(NOW), any(Instant.class), eq(10), eq(1000))).thenReturn(asList(
+                new S3Deletion(1, "a.jpg", 0),
+                new S3Deletion(2, "b.jpg", 0)
+        ));
+
+
+        worker.drain();
+
+
+        ArgumentCaptor<DeleteObjectsRequest> request = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(amazonS3, times(1)).deleteObjects(request.capture());
+        assertThat(request.getValue().getBucketName(), is("osusume-photos"));
+        assertThat(request.getValue().getKeys().size(), is(2));
+        assertThat(request.getValue().getKeys().get(1).getKey(), is("b.jpg"));
+        verify(s3DeletionDataMapper).delete(asList(1L, 2L));
+        verify(s3DeletionDataMapper, never()).reschedule(anyLong(), any(Instant.class), anyString());
+    }
+
+    @Test
+    public void test_drain_reschedulesKeysReportedAsFailed() {
+        when(s3DeletionDataMapper.claim(eq(NOW), any(Instant.class), anyInt(), anyInt())).thenReturn(asList(
+                new S3Deletion(1, "a.jpg", 0),
+                new S3Deletion(2, "b.jpg", 2)
+        ));
+        MultiObjectDeleteException.DeleteError error = new MultiObjectDeleteException.DeleteError();
+        error.setKey("b.jpg");
+        error.setCode("AccessDenied");
+        error.setMessage("Access Denied");
+        when(amazonS3.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenThrow(new MultiObjectDeleteException(singletonList(error), emptyList()));
+
+
+        worker.drain();
+
+
+        verify(s3DeletionDataMapper).delete(singletonList(1L));
+        verify(s3DeletionDataMapper).reschedule(2L, NOW.plusSeconds(120), "AccessDenied: Access Denied");
+    }
+
+    @Test
+    public void test_drain_reschedulesWholeBatchWhenS3IsUnreachable() {
+        when(s3DeletionDataMapper.claim(eq(NOW), any(Instant.class), anyInt(), anyInt())).thenReturn(asList(
+                new S3Deletion(1, "a.jpg", 0),
+                new S3Deletion(2, "b.jpg", 0)
+        ));
+        when(amazonS3.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenThrow(new AmazonClientException("Unable to execute HTTP request"));
+
+
+        worker.drain();
+
+
+        verify(s3DeletionDataMapper).delete(emptyList());
+        verify(s3DeletionDataMapper).reschedule(1L, NOW.plusSeconds(30), "Unable to execute HTTP request");
+        verify(s3DeletionDataMapper).reschedule(2L, NOW.plusSeconds(30), "Unable to execute HTTP request");
+    }
+
+    @Test
+    public void test_drain_doesNothingWithoutBucket() {
+        worker = new S3DeletionWorker(s3DeletionDataMapper, amazonS3, "", 10, Clock.fixed(NOW, ZoneOffset.UTC));
+
+
+        worker.drain();
+
+
+        verifyZeroInteractions(s3DeletionDataMapper, amazonS3);
+    }
+
+    @Test
+    public void test_backoff_doublesUpToOneHour() {
+        when(s3DeletionDataMapper.claim(eq(NOW), any(Instant.class), anyInt(), anyInt()))
+                .thenReturn(singletonList(new S3Deletion(1, "a.jpg", 20)));
+        when(amazonS3.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenThrow(new AmazonClientException("timeout"));
+
+
+        worker.drain();
+
+
+        verify(s3DeletionDataMapper).reschedule(1L, NOW.plusSeconds(3600), "timeout");
+    }
+}
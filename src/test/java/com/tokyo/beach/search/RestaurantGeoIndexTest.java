@@ -0,0 +1,113 @@
+package com.tokyo.beach.search;
+
+import com.tokyo.beach.restaurant.RestaurantFixture;
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import com.tokyo.beach.restaurants.search.RestaurantGeoIndex;
+import com.tokyo.beach.restaurants.user.User;
+import com.tokyo.beach.user.UserFixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import static com.tokyo.beach.TestDatabaseUtils.*;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RestaurantGeoIndexTest {
+    private JdbcTemplate jdbcTemplate;
+    private RestaurantGeoIndex restaurantGeoIndex;
+    private User user;
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(buildDataSource());
+        restaurantGeoIndex = new RestaurantGeoIndex(jdbcTemplate);
+        createDefaultCuisine(jdbcTemplate);
+        createDefaultPriceRange(jdbcTemplate);
+        user = new UserFixture().persist(jdbcTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        truncateAllTables(jdbcTemplate);
+    }
+
+    @Test
+    public void test_findNearby_returnsRestaurantsWithinRadius_nearestFirst() {
+        Restaurant shibuya = persist(35.6595, 139.7005);
+        Restaurant harajuku = persist(35.6702, 139.7027);
+        Restaurant shinjuku = persist(35.6896, 139.7006);
+        persist(35.6284, 139.7387);
+        persist(0, 0);
+
+
+        assertThat(
+                restaurantGeoIndex.findNearby(35.6581, 139.7017, 4000, 10),
+                is(asList(shibuya.getId(), harajuku.getId(), shinjuku.getId()))
+        );
+        assertThat(restaurantGeoIndex.findNearby(35.6581, 139.7017, 4000, 1), is(asList(shibuya.getId())));
+        assertThat(restaurantGeoIndex.findNearby(0, 0, 1000, 10), is(emptyList()));
+    }
+
+    @Test
+    public void test_restaurantSaved_andDeleted_updateTheLoadedIndex() {
+        Restaurant shibuya = persist(35.6595, 139.7005);
+        restaurantGeoIndex.findNearby(35.6581, 139.7017, 500, 10);
+
+        Restaurant moved = new RestaurantFixture()
+                .withId(shibuya.getId())
+                .withLatitude(34.6937)
+                .withLongitude(135.5023)
+                .build();
+        restaurantGeoIndex.restaurantSaved(moved);
+
+
+        assertThat(restaurantGeoIndex.findNearby(35.6581, 139.7017, 500, 10), is(emptyList()));
+        assertThat(restaurantGeoIndex.findNearby(34.6937, 135.5023, 500, 10), is(asList(shibuya.getId())));
+
+        restaurantGeoIndex.restaurantDeleted(shibuya.getId());
+
+        assertThat(restaurantGeoIndex.findNearby(34.6937, 135.5023, 500, 10), is(emptyList()));
+    }
+
+    @Test
+    public void test_rebuild_replaysChangesReportedWhileReadingTheTable() {
+        Restaurant shibuya = persist(35.6595, 139.7005);
+        Restaurant harajuku = persist(35.6702, 139.7027);
+        Restaurant moved = new RestaurantFixture()
+                .withId(shibuya.getId())
+                .withLatitude(34.6937)
+                .withLongitude(135.5023)
+                .build();
+        restaurantGeoIndex = new RestaurantGeoIndex(new JdbcTemplate(buildDataSource()) {
+            @Override
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper) {
+                List<T> rows = super.query(sql, rowMapper);
+                restaurantGeoIndex.restaurantSaved(moved);
+                restaurantGeoIndex.restaurantDeleted(harajuku.getId());
+                return rows;
+            }
+        });
+
+
+        restaurantGeoIndex.rebuild();
+
+
+        assertThat(restaurantGeoIndex.findNearby(35.6581, 139.7017, 4000, 10), is(emptyList()));
+        assertThat(restaurantGeoIndex.findNearby(34.6937, 135.5023, 500, 10), is(asList(shibuya.getId())));
+    }
+
+    private Restaurant persist(double latitude, double longitude) {
+        return new RestaurantFixture()
+                .withLatitude(latitude)
+                .withLongitude(longitude)
+                .withUser(user)
+                .persist(jdbcTemplate);
+    }
+}
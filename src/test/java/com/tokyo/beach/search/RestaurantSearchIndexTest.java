@@ -0,0 +1,131 @@
+package com.tokyo.beach.search;
+
+import com.tokyo.beach.restaurant.RestaurantFixture;
+import com.tokyo.beach.restaurants.restaurant.Restaurant;
+import com.tokyo.beach.restaurants.search.RestaurantSearchIndex;
+import com.tokyo.beach.restaurants.user.User;
+import com.tokyo.beach.user.UserFixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import static com.tokyo.beach.TestDatabaseUtils.*;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RestaurantSearchIndexTest {
+    private JdbcTemplate jdbcTemplate;
+    private RestaurantSearchIndex restaurantSearchIndex;
+    private User user;
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(buildDataSource());
+        restaurantSearchIndex = new RestaurantSearchIndex(jdbcTemplate);
+        createDefaultCuisine(jdbcTemplate);
+        createDefaultPriceRange(jdbcTemplate);
+        user = new UserFixture().persist(jdbcTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        truncateAllTables(jdbcTemplate);
+    }
+
+    @Test
+    public void test_search_ranksNameMatchesAheadOfAddressMatches() {
+        persist("Tsukemen Afuri", "Ebisu");
+        persist("Ippudo", "Next to Afuri, Roppongi");
+        persist("AFURI Roppongi Hills", "Roppongi");
+        persist("Afuri", "Harajuku");
+        persist("Ichiran", "Shibuya");
+
+
+        List<String> names = names(restaurantSearchIndex.search("afuri", 10));
+
+
+        assertThat(names, is(asList("Afuri", "AFURI Roppongi Hills", "Tsukemen Afuri", "Ippudo")));
+    }
+
+    @Test
+    public void test_search_normalizesQueryAndHandlesShortQueries() {
+        persist("Afuri", "Ebisu");
+        persist("一蘭", "渋谷");
+
+
+        assertThat(names(restaurantSearchIndex.search("  ＡＦＵＲＩ ", 10)), is(asList("Afuri")));
+        assertThat(names(restaurantSearchIndex.search("蘭", 10)), is(asList("一蘭")));
+        assertThat(names(restaurantSearchIndex.search("渋谷", 10)), is(asList("一蘭")));
+        assertThat(restaurantSearchIndex.search("afuru", 10).size(), is(0));
+    }
+
+    @Test
+    public void test_search_respectsLimit() {
+        persist("Afuri Ebisu", "Ebisu");
+        persist("Afuri Harajuku", "Harajuku");
+
+
+        assertThat(restaurantSearchIndex.search("afuri", 1).size(), is(1));
+    }
+
+    @Test
+    public void test_restaurantSaved_andDeleted_updateTheLoadedIndex() {
+        Restaurant afuri = persist("Afuri", "Ebisu");
+        restaurantSearchIndex.search("afuri", 10);
+
+
+        Restaurant renamed = new RestaurantFixture().withId(afuri.getId()).withName("Ichiran").withAddress("Ebisu").build();
+        restaurantSearchIndex.restaurantSaved(renamed);
+
+
+        assertThat(restaurantSearchIndex.search("afuri", 10).size(), is(0));
+        assertThat(names(restaurantSearchIndex.search("ichiran", 10)), is(asList("Ichiran")));
+
+        restaurantSearchIndex.restaurantDeleted(afuri.getId());
+
+        assertThat(restaurantSearchIndex.search("ichiran", 10).size(), is(0));
+        assertThat(restaurantSearchIndex.search("ebisu", 10).size(), is(0));
+    }
+
+    @Test
+    public void test_rebuild_replaysChangesReportedWhileReadingTheTable() {
+        Restaurant afuri = persist("Afuri", "Ebisu");
+        Restaurant ichiran = persist("Ichiran", "Shibuya");
+        Restaurant renamed = new RestaurantFixture().withId(afuri.getId()).withName("Ippudo").withAddress("Ebisu").build();
+        restaurantSearchIndex = new RestaurantSearchIndex(new JdbcTemplate(buildDataSource()) {
+            @Override
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper) {
+                List<T> rows = super.query(sql, rowMapper);
+                restaurantSearchIndex.restaurantSaved(renamed);
+                restaurantSearchIndex.restaurantDeleted(ichiran.getId());
+                return rows;
+            }
+        });
+
+
+        restaurantSearchIndex.rebuild();
+
+
+        assertThat(restaurantSearchIndex.search("afuri", 10).size(), is(0));
+        assertThat(names(restaurantSearchIndex.search("ippudo", 10)), is(asList("Ippudo")));
+        assertThat(restaurantSearchIndex.search("ichiran", 10).size(), is(0));
+    }
+
+    private Restaurant persist(String name, String address) {
+        return new RestaurantFixture()
+                .withName(name)
+                .withAddress(address)
+                .withUser(user)
+                .persist(jdbcTemplate);
+    }
+
+    private static List<String> names(List<Restaurant> restaurants) {
+        return restaurants.stream().map(Restaurant::getName).collect(toList());
+    }
+}
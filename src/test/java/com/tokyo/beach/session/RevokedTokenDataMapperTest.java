@@ -0,0 +1,60 @@
+package com.tokyo.beach.session;
+
+import com.tokyo.beach.restaurants.session.RevokedTokenDataMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+
+import static com.tokyo.beach.TestDatabaseUtils.buildDataSource;
+import static com.tokyo.beach.TestDatabaseUtils.truncateAllTables;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RevokedTokenDataMapperTest {
+    private static final Instant NOW = Instant.parse("2016-05-01T00:00:00Z");
+
+    private JdbcTemplate jdbcTemplate;
+    private RevokedTokenDataMapper revokedTokenDataMapper;
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(buildDataSource());
+        revokedTokenDataMapper = new RevokedTokenDataMapper(jdbcTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        truncateAllTables(jdbcTemplate);
+    }
+
+    @Test
+    public void test_findUnexpired_returnsOnlyUnexpiredJtis() {
+        revokedTokenDataMapper.create("live", NOW.plus(Duration.ofMinutes(1)));
+        revokedTokenDataMapper.create("expired", NOW.minus(Duration.ofMinutes(1)));
+
+        assertThat(revokedTokenDataMapper.findUnexpired(NOW), is(Collections.singleton("live")));
+    }
+
+    @Test
+    public void test_create_ignoresDuplicateJti() {
+        revokedTokenDataMapper.create("live", NOW.plus(Duration.ofMinutes(1)));
+        revokedTokenDataMapper.create("live", NOW.plus(Duration.ofMinutes(1)));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM revoked_token", Integer.class), is(1));
+    }
+
+    @Test
+    public void test_deleteExpired_removesExpiredRows() {
+        revokedTokenDataMapper.create("live", NOW.plus(Duration.ofMinutes(1)));
+        revokedTokenDataMapper.create("expired", NOW.minus(Duration.ofMinutes(1)));
+
+        revokedTokenDataMapper.deleteExpired(NOW);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM revoked_token", Integer.class), is(1));
+    }
+}
@@ -4,6 +4,7 @@ import com.tokyo.beach.restaurants.user.User;
 import com.tokyo.beach.restutils.RestControllerExceptionHandler;
 import com.tokyo.beach.restaurants.session.SessionController;
 import com.tokyo.beach.restaurants.session.SessionDataMapper;
+import com.tokyo.beach.restaurants.session.SignedTokenService;
 import com.tokyo.beach.restaurants.session.TokenGenerator;
 import com.tokyo.beach.restaurants.session.UserSession;
 import com.tokyo.beach.restaurants.session.LogonCredentials;
@@ -27,6 +28,7 @@ public class SessionControllerTest {
     private SessionDataMapper sessionDataMapper;
     private UserDataMapper userDataMapper;
     private TokenGenerator tokenGenerator;
+    private SignedTokenService signedTokenService;
 
     private LogonCredentials credentials;
     private Optional<User> maybeUser;
@@ -36,10 +38,12 @@ public class SessionControllerTest {
         sessionDataMapper = mock(SessionDataMapper.class);
         userDataMapper = mock(UserDataMapper.class);
         tokenGenerator = mock(TokenGenerator.class);
+        signedTokenService = mock(SignedTokenService.class);
         mvc = MockMvcBuilders.standaloneSetup(new SessionController(
                 sessionDataMapper,
                 userDataMapper,
-                tokenGenerator)
+                tokenGenerator,
+                signedTokenService)
         )
                 .setControllerAdvice(createControllerAdvice(new RestControllerExceptionHandler()))
                 .build();
@@ -138,6 +142,40 @@ public class SessionControllerTest {
         verify(sessionDataMapper, times(1)).delete("ABCDE12345");
     }
 
+    @Test
+    public void test_postToSession_issuesSignedToken_whenSigningIsEnabled() throws Exception {
+        when(signedTokenService.isEnabled()).thenReturn(true);
+        when(signedTokenService.create(maybeUser.get()))
+                .thenReturn(new UserSession("v1.payload.signature", "jmiller@gmail.com", "Joe Miller", 999L));
+
+
+        mvc.perform(post("/session")
+                .contentType(APPLICATION_JSON_UTF8_VALUE)
+                .content("{\"email\":\"jmiller@gmail.com\",\"password\":\"mypassword\"}")
+                .accept(APPLICATION_JSON_UTF8_VALUE)
+        )
+                .andExpect(jsonPath("$.token", is("v1.payload.signature")));
+
+
+        verify(sessionDataMapper, never()).create(anyObject(), anyObject());
+    }
+
+    @Test
+    public void test_deleteSession_revokesSignedToken() throws Exception {
+        when(signedTokenService.isSignedToken("v1.payload.signature")).thenReturn(true);
+
+
+        mvc.perform(delete("/session")
+                .contentType(APPLICATION_JSON_UTF8_VALUE)
+                .content("{\"token\":\"v1.payload.signature\"}")
+                .accept(APPLICATION_JSON_UTF8_VALUE)
+        );
+
+
+        verify(signedTokenService).revoke("v1.payload.signature");
+        verify(sessionDataMapper, never()).delete(anyString());
+    }
+
     @Test
     public void test_unauthenticated_returnsBadRequestHttpStatus() throws Exception {
         mvc.perform(get("/unauthenticated"))
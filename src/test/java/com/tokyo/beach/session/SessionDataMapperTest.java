@@ -1,6 +1,7 @@
 package com.tokyo.beach.session;
 
 import com.tokyo.beach.restaurants.session.SessionDataMapper;
+import com.tokyo.beach.restaurants.session.SessionTokenCache;
 import com.tokyo.beach.restaurants.session.TokenGenerator;
 import com.tokyo.beach.restaurants.session.UserSession;
 import com.tokyo.beach.restaurants.user.User;
@@ -10,6 +11,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +25,7 @@ import static org.mockito.Mockito.when;
 public class SessionDataMapperTest {
     private SessionDataMapper sessionDataMapper;
     private JdbcTemplate jdbcTemplate;
+    private SessionTokenCache sessionTokenCache;
 
     private TokenGenerator mockTokenGenerator;
     private User user;
@@ -31,7 +34,8 @@ public class SessionDataMapperTest {
     @Before
     public void setUp() throws Exception {
         this.jdbcTemplate = new JdbcTemplate(buildDataSource());
-        this.sessionDataMapper = new SessionDataMapper(this.jdbcTemplate);
+        this.sessionTokenCache = new SessionTokenCache(60, 100);
+        this.sessionDataMapper = new SessionDataMapper(this.jdbcTemplate, this.sessionTokenCache);
 
         mockTokenGenerator = mock(TokenGenerator.class);
         when(mockTokenGenerator.nextToken()).thenReturn("new-token");
@@ -113,4 +117,68 @@ public class SessionDataMapperTest {
         );
         assertThat(count, is(0));
     }
+
+    @Test
+    public void test_validateToken_servesRepeatLookupsFromCache() throws Exception {
+        new SessionFixture()
+                .withTokenValue("token-value")
+                .withUserId(userId)
+                .persist(jdbcTemplate);
+        sessionDataMapper.validateToken("token-value");
+
+        jdbcTemplate.update("DELETE FROM session WHERE token = ?", "token-value");
+        Optional<Long> maybeUserId = sessionDataMapper.validateToken("token-value");
+
+        assertEquals(userId, maybeUserId.get());
+        assertThat(sessionTokenCache.getHitCount(), is(1L));
+    }
+
+    @Test
+    public void test_validateToken_doesNotCacheInvalidTokens() throws Exception {
+        sessionDataMapper.validateToken("token-value");
+
+        new SessionFixture()
+                .withTokenValue("token-value")
+                .withUserId(userId)
+                .persist(jdbcTemplate);
+        Optional<Long> maybeUserId = sessionDataMapper.validateToken("token-value");
+
+        assertEquals(userId, maybeUserId.get());
+    }
+
+    @Test
+    public void test_delete_invalidatesCachedToken() throws Exception {
+        new SessionFixture()
+                .withTokenValue("token-value")
+                .withUserId(userId)
+                .persist(jdbcTemplate);
+        sessionDataMapper.validateToken("token-value");
+
+        sessionDataMapper.delete("token-value");
+
+        assertFalse(sessionDataMapper.validateToken("token-value").isPresent());
+    }
+
+    @Test
+    public void test_validateToken_doesNotCacheTokenDeletedWhileItWasBeingRead() throws Exception {
+        new SessionFixture()
+                .withTokenValue("token-value")
+                .withUserId(userId)
+                .persist(jdbcTemplate);
+        SessionDataMapper racingSessionDataMapper = new SessionDataMapper(
+                new JdbcTemplate(buildDataSource()) {
+                    @Override
+                    public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+                        List<T> rows = super.query(sql, rowMapper, args);
+                        sessionDataMapper.delete("token-value");
+                        return rows;
+                    }
+                },
+                sessionTokenCache
+        );
+
+        racingSessionDataMapper.validateToken("token-value");
+
+        assertFalse(sessionDataMapper.validateToken("token-value").isPresent());
+    }
 }
@@ -0,0 +1,125 @@
+package com.tokyo.beach.session;
+
+import com.tokyo.beach.restaurants.session.RevokedTokenDataMapper;
+import com.tokyo.beach.restaurants.session.SignedTokenService;
+import com.tokyo.beach.restaurants.session.UserSession;
+import com.tokyo.beach.restaurants.user.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class SignedTokenServiceTest {
+    private static final Instant NOW = Instant.parse("2016-05-01T00:00:00Z");
+
+    private RevokedTokenDataMapper revokedTokenDataMapper;
+    private SignedTokenService signedTokenService;
+    private User user;
+
+    @Before
+    public void setUp() {
+        revokedTokenDataMapper = mock(RevokedTokenDataMapper.class);
+        signedTokenService = buildService("secret", NOW);
+        user = new User(12, "jmiller@gmail.com", "Jim Miller");
+    }
+
+    @Test
+    public void test_create_returnsSessionWithSignedToken() {
+        UserSession userSession = signedTokenService.create(user);
+
+        assertTrue(signedTokenService.isSignedToken(userSession.getToken()));
+        assertThat(userSession.getId(), is(12L));
+        assertThat(userSession.getEmail(), is("jmiller@gmail.com"));
+    }
+
+    @Test
+    public void test_validateToken_returnsUserIdForIssuedToken() {
+        String token = signedTokenService.create(user).getToken();
+
+        assertThat(signedTokenService.validateToken(token).get(), is(12L));
+    }
+
+    @Test
+    public void test_validateToken_rejectsTamperedToken() {
+        String token = signedTokenService.create(user).getToken();
+        String otherUsersToken = signedTokenService.create(new User(13, "other@gmail.com", "Other")).getToken();
+        String forged = otherUsersToken.substring(0, otherUsersToken.lastIndexOf('.')) +
+                token.substring(token.lastIndexOf('.'));
+
+        assertFalse(signedTokenService.validateToken(forged).isPresent());
+        assertFalse(signedTokenService.validateToken("v1.garbage").isPresent());
+    }
+
+    @Test
+    public void test_validateToken_rejectsTokenSignedWithAnotherKey() {
+        String token = buildService("another-secret", NOW).create(user).getToken();
+
+        assertFalse(signedTokenService.validateToken(token).isPresent());
+    }
+
+    @Test
+    public void test_validateToken_rejectsExpiredToken() {
+        String token = signedTokenService.create(user).getToken();
+        SignedTokenService later = buildService("secret", NOW.plus(Duration.ofHours(1)));
+
+        assertFalse(later.validateToken(token).isPresent());
+    }
+
+    @Test
+    public void test_revoke_persistsAndRejectsToken() {
+        String token = signedTokenService.create(user).getToken();
+
+        signedTokenService.revoke(token);
+
+        assertFalse(signedTokenService.validateToken(token).isPresent());
+        verify(revokedTokenDataMapper).create(anyString(), eq(NOW.plus(Duration.ofHours(1))));
+    }
+
+    @Test
+    public void test_refreshRevocations_picksUpRevocationsFromOtherNodes() {
+        String token = signedTokenService.create(user).getToken();
+        SignedTokenService otherNode = buildService("secret", NOW);
+        otherNode.revoke(token);
+        String jti = captureRevokedJti();
+
+        when(revokedTokenDataMapper.findUnexpired(NOW)).thenReturn(Collections.singleton(jti));
+        signedTokenService.refreshRevocations();
+
+        assertFalse(signedTokenService.validateToken(token).isPresent());
+        verify(revokedTokenDataMapper).deleteExpired(NOW);
+    }
+
+    @Test
+    public void test_isEnabled_isFalseWithoutSigningKey() {
+        SignedTokenService disabled = buildService("", NOW);
+
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.validateToken(signedTokenService.create(user).getToken()).isPresent());
+    }
+
+    private SignedTokenService buildService(String key, Instant now) {
+        return new SignedTokenService(
+                key,
+                Duration.ofHours(1),
+                revokedTokenDataMapper,
+                Clock.fixed(now, ZoneOffset.UTC)
+        );
+    }
+
+    private String captureRevokedJti() {
+        ArgumentCaptor<String> jti = ArgumentCaptor.forClass(String.class);
+        verify(revokedTokenDataMapper).create(jti.capture(), any(Instant.class));
+        return jti.getValue();
+    }
+}